@@ -0,0 +1,93 @@
+package br.com.petterson.spring.config;
+
+import static br.com.petterson.spring.config.SecurityConstants.*;
+
+import br.com.petterson.spring.service.EstudosUserDetails;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Issues a token through {@link JWTAuthenticationFilter#successfulAuthentication} and turns it
+ * back into an authentication through {@link JWTAuthorizationFilter}, both with the verified-token
+ * cache hit and with every request parsing and verifying the signature.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+
+    private JWTAuthenticationFilter authenticationFilter;
+    private JWTAuthorizationFilter cachedAuthorizationFilter;
+    private JWTAuthorizationFilter uncachedAuthorizationFilter;
+    private Authentication authentication;
+    private MockHttpServletRequest authorizedRequest;
+
+    @Setup
+    public void setUp() throws Exception {
+        authenticationFilter = new JWTAuthenticationFilter(authentication -> authentication, true);
+        cachedAuthorizationFilter = authorizationFilter(10_000);
+        uncachedAuthorizationFilter = authorizationFilter(0);
+        EstudosUserDetails user = new EstudosUserDetails("petterson", "",
+            AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN"), 3L);
+        authentication = new UsernamePasswordAuthenticationToken(user, null,
+            user.getAuthorities());
+
+        MockHttpServletResponse response = createToken();
+        authorizedRequest = new MockHttpServletRequest("GET", "/v1/protected/students");
+        authorizedRequest.addHeader(HEADER_STRING, response.getHeader(HEADER_STRING));
+    }
+
+    private static JWTAuthorizationFilter authorizationFilter(long tokenCacheSize) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new JWTAuthorizationFilter(authentication -> authentication, null,
+            new VerifiedTokenCache(meterRegistry, tokenCacheSize, 60), true, null, meterRegistry);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse createToken() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        authenticationFilter.successfulAuthentication(new MockHttpServletRequest(), response,
+            NO_OP_CHAIN, authentication);
+        return response;
+    }
+
+    @Benchmark
+    public Authentication authorizeCachedToken() throws Exception {
+        return authorize(cachedAuthorizationFilter);
+    }
+
+    @Benchmark
+    public Authentication authorizeUncachedToken() throws Exception {
+        return authorize(uncachedAuthorizationFilter);
+    }
+
+    private Authentication authorize(JWTAuthorizationFilter filter) throws Exception {
+        filter.doFilterInternal(authorizedRequest, new MockHttpServletResponse(), NO_OP_CHAIN);
+        Authentication result = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return result;
+    }
+}
@@ -0,0 +1,129 @@
+package br.com.petterson.spring.endpoint;
+
+import br.com.petterson.spring.EstudosApplication;
+import br.com.petterson.spring.model.Student;
+import br.com.petterson.spring.repository.StudentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Alternates a page of students and a single student through the web layer, reporting with the
+ * request time how long each request kept a pooled connection checked out, from the
+ * {@code hikaricp.connections.usage} timer. {@code openInView=true} is the
+ * open-session-in-view baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConnectionHoldBenchmark {
+
+    private static final int STUDENTS = 1000;
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"false", "true"})
+    private boolean openInView;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private Timer usage;
+    private final List<Long> ids = new ArrayList<>(STUDENTS);
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(EstudosApplication.class)
+            .run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:hold",
+                "--spring.datasource.username=sa",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.open-in-view=" + openInView);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+            .apply(SecurityMockMvcConfigurers.springSecurity())
+            .defaultRequest(MockMvcRequestBuilders.get("/")
+                .with(SecurityMockMvcRequestPostProcessors.user("user")))
+            .build();
+
+        List<Student> students = new ArrayList<>(STUDENTS);
+        for (int i = 0; i < STUDENTS; i++) {
+            students.add(new Student("Student " + i, "student" + i + "@teste.com.br"));
+        }
+        context.getBean(StudentRepository.class).saveAll(students)
+            .forEach(student -> ids.add(student.getId()));
+        usage = context.getBean(MeterRegistry.class).get("hikaricp.connections.usage").timer();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int read(ConnectionHold hold) throws Exception {
+        int i = next++;
+        String path = i % 2 == 0
+            ? "/v1/protected/students?size=" + PAGE_SIZE + "&page=" + i % (STUDENTS / PAGE_SIZE)
+            : "/v1/protected/students/" + ids.get(i % STUDENTS);
+        int status = mockMvc.perform(MockMvcRequestBuilders.get(path)).andReturn().getResponse()
+            .getStatus();
+        hold.record(usage);
+        return status;
+    }
+
+    /**
+     * Reported next to the request time, per measurement iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ConnectionHold {
+
+        public double heldMillisPerRequest;
+        public double checkoutsPerRequest;
+
+        private long requests;
+        private long checkoutsBefore;
+        private double heldMillisBefore;
+
+        @Setup(Level.Iteration)
+        public void reset(ConnectionHoldBenchmark benchmark) {
+            requests = 0;
+            checkoutsBefore = benchmark.usage.count();
+            heldMillisBefore = benchmark.usage.totalTime(TimeUnit.MILLISECONDS);
+        }
+
+        void record(Timer usage) {
+            requests++;
+            heldMillisPerRequest =
+                (usage.totalTime(TimeUnit.MILLISECONDS) - heldMillisBefore) / requests;
+            checkoutsPerRequest = (double) (usage.count() - checkoutsBefore) / requests;
+        }
+    }
+}
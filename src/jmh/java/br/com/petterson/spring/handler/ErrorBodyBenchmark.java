@@ -0,0 +1,79 @@
+package br.com.petterson.spring.handler;
+
+import br.com.petterson.spring.error.InvalidRequestException;
+import br.com.petterson.spring.error.ResourceNotFoundException;
+import br.com.petterson.spring.model.Student;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Builds the error bodies of {@link RestExceptionHandler} for a missing resource, a rejected
+ * request and a failed field validation. The exceptions are created once, so only the handler's
+ * own work is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorBodyBenchmark {
+
+    private RestExceptionHandler handler;
+    private ResourceNotFoundException notFound;
+    private InvalidRequestException invalidRequest;
+    private MethodArgumentNotValidException notValid;
+    private WebRequest webRequest;
+
+    @Setup
+    public void setUp() throws Exception {
+        handler = new RestExceptionHandler();
+        notFound = new ResourceNotFoundException("Student not found for ID: 42");
+        invalidRequest = new InvalidRequestException("Unknown student field: 'age'");
+
+        BeanPropertyBindingResult bindingResult =
+            new BeanPropertyBindingResult(new Student(), "student");
+        bindingResult.rejectValue("name", "NotEmpty", "must not be empty");
+        bindingResult.rejectValue("email", "Email", "must be a well-formed email address");
+        notValid = new MethodArgumentNotValidException(new MethodParameter(
+            ErrorBodyBenchmark.class.getMethod("validate", Student.class), 0), bindingResult);
+        webRequest = new ServletWebRequest(new MockHttpServletRequest());
+    }
+
+    public void validate(Student student) {
+    }
+
+    @Benchmark
+    public ResponseEntity<?> resourceNotFound() {
+        return handler.handlerResourceNotFoundException(notFound);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> invalidRequest() {
+        return handler.handlerInvalidRequestException(invalidRequest);
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> fieldValidation() {
+        return handler.handleMethodArgumentNotValid(notValid, new HttpHeaders(),
+            HttpStatus.BAD_REQUEST, webRequest);
+    }
+}
@@ -0,0 +1,83 @@
+package br.com.petterson.spring.model;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Writes a {@link Student} and a page of students with an {@code ObjectMapper} built the way
+ * Spring Boot builds the one behind the REST endpoints, and reads the page back into a
+ * {@link PageableResponse} as API clients do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private static final TypeReference<PageableResponse<Student>> PAGE_TYPE =
+        new TypeReference<PageableResponse<Student>>() {
+        };
+
+    private static final ObjectMapper OBJECT_MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    private Student student;
+
+    @State(Scope.Benchmark)
+    public static class Page {
+
+        @Param({"20", "200"})
+        private int pageSize;
+
+        private PageableResponse<StudentDTO> response;
+        private byte[] json;
+
+        @Setup
+        public void setUp() throws Exception {
+            List<StudentDTO> students = new ArrayList<>(pageSize);
+            for (int i = 0; i < pageSize; i++) {
+                students.add(new StudentDTO(
+                    new Student((long) i, "Student " + i, "student" + i + "@teste.com.br")));
+            }
+            response = new PageableResponse<>(students, 0, pageSize, 10_000L, null, true, false,
+                10_000 / pageSize, null, pageSize, null);
+            json = OBJECT_MAPPER.writeValueAsBytes(response);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        student = new Student(1L, "Petterson Santos", "petterson@teste.com.br");
+    }
+
+    @Benchmark
+    public byte[] serializeStudent() throws Exception {
+        return OBJECT_MAPPER.writeValueAsBytes(student);
+    }
+
+    @Benchmark
+    public byte[] serializePage(Page page) throws Exception {
+        return OBJECT_MAPPER.writeValueAsBytes(page.response);
+    }
+
+    @Benchmark
+    public PageableResponse<Student> deserializePage(Page page) throws Exception {
+        return OBJECT_MAPPER.readValue(page.json, PAGE_TYPE);
+    }
+}
@@ -0,0 +1,78 @@
+package br.com.petterson.spring.model;
+
+import br.com.petterson.spring.EstudosApplication;
+import br.com.petterson.spring.repository.StudentRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Saves a chunk of students in one transaction against the MySQL-style
+ * {@code hibernate_sequence} table. An increment size of 1 is the one-round-trip-per-id
+ * baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PooledIdGeneratorBenchmark {
+
+    private static final int CHUNK = 500;
+
+    @Param({"1", "50"})
+    private int incrementSize;
+
+    private ConfigurableApplicationContext context;
+    private StudentRepository studentRepository;
+    private TransactionTemplate transactionTemplate;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(EstudosApplication.class)
+            .web(WebApplicationType.NONE)
+            .run(
+                "--spring.datasource.url=jdbc:h2:mem:ids;MODE=MySQL",
+                "--spring.datasource.username=sa",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQL8Dialect",
+                "--spring.jpa.properties.hibernate.id.pooled.increment_size=" + incrementSize);
+        studentRepository = context.getBean(StudentRepository.class);
+        transactionTemplate =
+            new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Iterable<Student> saveChunk() {
+        return transactionTemplate.execute(status -> {
+            List<Student> chunk = new ArrayList<>(CHUNK);
+            for (int i = 0; i < CHUNK; i++, next++) {
+                chunk.add(new Student("Student " + next, "student" + next + "@teste.com.br"));
+            }
+            return studentRepository.saveAll(chunk);
+        });
+    }
+}
@@ -0,0 +1,121 @@
+package br.com.petterson.spring.service;
+
+import br.com.petterson.spring.EstudosApplication;
+import br.com.petterson.spring.model.StudentImportReport;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Imports a generated payload that is never held in memory as a whole. Run it with
+ * {@code -prof gc} to see what the import allocates per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StudentImportBenchmark {
+
+    private static final int ROWS = 200_000;
+    // every REJECT_EVERY-th row has an invalid email
+    private static final int REJECT_EVERY = 100;
+
+    @Param({"NDJSON", "CSV"})
+    private StudentFileFormat format;
+
+    private ConfigurableApplicationContext context;
+    private StudentImportService studentImportService;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(EstudosApplication.class)
+            .web(WebApplicationType.NONE)
+            .run(
+                "--spring.datasource.url=jdbc:h2:mem:import",
+                "--spring.datasource.username=sa",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect");
+        studentImportService = context.getBean(StudentImportService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteImported() {
+        jdbcTemplate.update("delete from student");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public StudentImportReport importStudents() {
+        String header = format == StudentFileFormat.CSV ? "name,email\n" : null;
+        return studentImportService.importStudents(format, new GeneratedPayload(format, header));
+    }
+
+    private static class GeneratedPayload extends InputStream {
+
+        private final StudentFileFormat format;
+        private byte[] line;
+        private int position;
+        private int row;
+
+        GeneratedPayload(StudentFileFormat format, String header) {
+            this.format = format;
+            this.line = header == null ? new byte[0] : header.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int read() {
+            return nextLine() ? line[position++] : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (!nextLine()) {
+                return -1;
+            }
+            int count = Math.min(length, line.length - position);
+            System.arraycopy(line, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        private boolean nextLine() {
+            while (position == line.length) {
+                if (row == ROWS) {
+                    return false;
+                }
+                row++;
+                String email = row % REJECT_EVERY == 0 ? "not-an-email" : "s" + row + "@teste.com";
+                String text = format == StudentFileFormat.CSV
+                    ? "Student " + row + "," + email + "\n"
+                    : "{\"name\":\"Student " + row + "\",\"email\":\"" + email + "\"}\n";
+                line = text.getBytes(StandardCharsets.UTF_8);
+                position = 0;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package br.com.petterson.spring.service;
+
+import br.com.petterson.spring.EstudosApplication;
+import br.com.petterson.spring.model.Student;
+import br.com.petterson.spring.repository.StudentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Compares a search through the trigram index with the {@code LIKE '%x%'} query it replaces,
+ * both loading the matching students, and times building the index from the table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StudentNameIndexBenchmark {
+
+    private static final String[] SYLLABLES = {"pe", "tter", "son", "san", "tos", "ma", "ria",
+        "jo", "ao", "li", "ra", "bea", "tri", "z", "lu", "cas", "fer", "nan", "da", "gui"};
+    private static final int TERMS = 50;
+
+    @Param({"100000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private StudentRepository studentRepository;
+    private PlatformTransactionManager transactionManager;
+    private StudentNameIndex index;
+    private final List<String> terms = new ArrayList<>(TERMS);
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(EstudosApplication.class)
+            .web(WebApplicationType.NONE)
+            .run(
+                "--spring.datasource.url=jdbc:h2:mem:names",
+                "--spring.datasource.username=sa",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect");
+        studentRepository = context.getBean(StudentRepository.class);
+        transactionManager = context.getBean(PlatformTransactionManager.class);
+
+        Random random = new Random(42);
+        List<String> names = insertStudents(context.getBean(JdbcTemplate.class), random);
+        for (int i = 0; i < TERMS; i++) {
+            String name = names.get(random.nextInt(names.size()));
+            terms.add(name.substring(name.length() - 5));
+        }
+        index = buildIndex();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Student> searchWithLike() {
+        return studentRepository.findByNameIgnoreCaseContaining(nextTerm());
+    }
+
+    @Benchmark
+    public Iterable<Student> searchWithIndex() {
+        return studentRepository.findAllById(index.search(nextTerm()));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    public StudentNameIndex build() {
+        return buildIndex();
+    }
+
+    private StudentNameIndex buildIndex() {
+        StudentNameIndex built = new StudentNameIndex(studentRepository, transactionManager,
+            new SimpleMeterRegistry(), true);
+        built.build();
+        return built;
+    }
+
+    private String nextTerm() {
+        return terms.get(next++ % TERMS);
+    }
+
+    private List<String> insertStudents(JdbcTemplate jdbcTemplate, Random random) {
+        List<String> names = new ArrayList<>(rows);
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 1; i <= rows; i++) {
+            StringBuilder name = new StringBuilder();
+            for (int s = 2 + random.nextInt(4); s > 0; s--) {
+                name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            name.append(' ').append(Integer.toString(36 * 36 * 36 * 36 + random.nextInt(
+                35 * 36 * 36 * 36 * 36), 36));
+            names.add(name.toString());
+            batch.add(new Object[]{(long) i, name.toString(), "student" + i + "@teste.com.br"});
+            if (batch.size() == 1000 || i == rows) {
+                jdbcTemplate.batchUpdate("insert into student (id, name, email) values (?, ?, ?)",
+                    batch);
+                batch.clear();
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,78 @@
+package br.com.petterson.spring.service;
+
+import br.com.petterson.spring.model.UserEstudos;
+import br.com.petterson.spring.repository.EstudosRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Builds a user's authorities from the {@link CustomUserDetailService} cache, as every login and
+ * every token without roles does, and the alternatives the JWT filters use when the roles travel
+ * in the token. The repository is a stub, so a cache miss would not measure the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserAuthoritiesBenchmark {
+
+    private static final List<String> ROLES = Arrays.asList("ROLE_USER", "ROLE_ADMIN");
+
+    private CustomUserDetailService customUserDetailService;
+    private Collection<? extends GrantedAuthority> authorities;
+
+    @Setup
+    public void setUp() {
+        UserEstudos user = new UserEstudos();
+        user.setUsername("petterson");
+        user.setPassword("{bcrypt}unused");
+        user.setAdmin(true);
+        EstudosRepository estudosRepository = (EstudosRepository) Proxy.newProxyInstance(
+            EstudosRepository.class.getClassLoader(), new Class<?>[]{EstudosRepository.class},
+            (proxy, method, args) -> {
+                if (method.getName().equals("findByUsername")) {
+                    return user.getUsername().equals(args[0]) ? user : null;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+        customUserDetailService = new CustomUserDetailService(estudosRepository,
+            new PasswordUpgradeWriter(estudosRepository), new SimpleMeterRegistry(), 10_000, 300);
+        authorities = customUserDetailService.loadUserByUsername(user.getUsername())
+            .getAuthorities();
+    }
+
+    @Benchmark
+    public UserDetails loadCachedUser() {
+        return customUserDetailService.loadUserByUsername("petterson");
+    }
+
+    @Benchmark
+    public List<GrantedAuthority> authoritiesFromTokenRoles() {
+        return AuthorityUtils.createAuthorityList(ROLES.toArray(new String[0]));
+    }
+
+    @Benchmark
+    public Set<String> tokenRolesFromAuthorities() {
+        return AuthorityUtils.authorityListToSet(authorities);
+    }
+}
@@ -0,0 +1,47 @@
+package br.com.petterson.spring.config;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+public final class BCryptCostCalibrator {
+
+    private static final Logger log = LoggerFactory.getLogger(BCryptCostCalibrator.class);
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+    private static final String SAMPLE_PASSWORD = "calibration-sample";
+
+    private BCryptCostCalibrator() {
+    }
+
+    /**
+     * Returns the highest cost between {@code minCost} and {@code maxCost} whose hash time on this
+     * machine stays within {@code targetMillis}. Each extra cost unit doubles the work, so the
+     * search stops at the first cost over the target.
+     */
+    public static int calibrate(long targetMillis, int minCost, int maxCost) {
+        new BCryptPasswordEncoder(minCost).encode(SAMPLE_PASSWORD);
+        int cost = minCost;
+        for (int candidate = minCost; candidate <= maxCost; candidate++) {
+            long start = System.nanoTime();
+            new BCryptPasswordEncoder(candidate).encode(SAMPLE_PASSWORD);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            log.debug("BCrypt cost {} took {} ms", candidate, elapsedMillis);
+            if (elapsedMillis > targetMillis) {
+                break;
+            }
+            cost = candidate;
+        }
+        log.info("Using BCrypt cost {} for a target of {} ms per hash", cost, targetMillis);
+        return cost;
+    }
+
+    public static int costOf(String encodedPassword) {
+        if (encodedPassword == null) {
+            return -1;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+}
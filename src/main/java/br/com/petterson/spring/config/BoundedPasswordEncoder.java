@@ -0,0 +1,142 @@
+package br.com.petterson.spring.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs BCrypt on a dedicated, bounded pool so a login storm can only hold as many request threads
+ * as the pool has threads plus queue slots. Anything beyond that fails fast with a
+ * {@link LoginOverloadedException}, which the login filter turns into a 503 with Retry-After.
+ */
+@Component
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitMillis;
+    private final long retryAfterSeconds;
+    private final Timer waitTimer;
+    private final Timer verificationTimer;
+    private final Counter rejectedCounter;
+
+    @Autowired
+    public BoundedPasswordEncoder(MeterRegistry meterRegistry,
+        @Value("${security.login.verification.threads:0}") int threads,
+        @Value("${security.login.verification.queue-capacity:64}") int queueCapacity,
+        @Value("${security.login.verification.max-wait-millis:5000}") long maxWaitMillis,
+        @Value("${security.login.verification.retry-after-seconds:1}") long retryAfterSeconds,
+        @Value("${security.password.strength:0}") int strength,
+        @Value("${security.password.target-hash-millis:250}") long targetHashMillis,
+        @Value("${security.password.min-strength:10}") int minStrength,
+        @Value("${security.password.max-strength:16}") int maxStrength) {
+        this.strength = strength > 0 ? strength
+            : BCryptCostCalibrator.calibrate(targetHashMillis, minStrength, maxStrength);
+        this.delegate = new BCryptPasswordEncoder(this.strength);
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            new CustomizableThreadFactory("password-verification-"),
+            new ThreadPoolExecutor.AbortPolicy());
+        this.maxWaitMillis = maxWaitMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.waitTimer = Timer.builder("login.verification.wait")
+            .description("Time a password verification waited in the queue")
+            .register(meterRegistry);
+        this.verificationTimer = Timer.builder("login.verification.duration")
+            .description("Time spent hashing a password")
+            .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("login.verification.rejected")
+            .description("Password verifications rejected because the pool was saturated")
+            .register(meterRegistry);
+        Gauge.builder("login.verification.queue", executor, e -> e.getQueue().size())
+            .description("Password verifications waiting for a thread")
+            .register(meterRegistry);
+        Gauge.builder("login.verification.active", executor, ThreadPoolExecutor::getActiveCount)
+            .register(meterRegistry);
+        Gauge.builder("login.verification.strength", this, BoundedPasswordEncoder::getStrength)
+            .description("BCrypt cost used for new hashes")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int cost = BCryptCostCalibrator.costOf(encodedPassword);
+        // only upwards: the cost is calibrated per node, and a slower node must not downgrade
+        // hashes that a faster one raised
+        return cost > 0 && cost < strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                waitTimer.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return task.call();
+                } finally {
+                    verificationTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new LoginOverloadedException("Too many concurrent logins", retryAfterSeconds);
+        }
+
+        try {
+            return future.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new LoginOverloadedException("Password verification timed out", retryAfterSeconds);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AuthenticationServiceException("Password verification interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new AuthenticationServiceException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
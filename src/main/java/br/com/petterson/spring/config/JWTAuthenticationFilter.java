@@ -3,7 +3,9 @@ package br.com.petterson.spring.config;
 import static br.com.petterson.spring.config.SecurityConstants.*;
 
 import br.com.petterson.spring.model.UserEstudos;
+import br.com.petterson.spring.service.EstudosUserDetails;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import java.io.IOException;
@@ -12,20 +14,26 @@ import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 public class JWTAuthenticationFilter extends UsernamePasswordAuthenticationFilter {
 
     private AuthenticationManager authenticationManager;
+    private final boolean authoritiesInToken;
 
     public JWTAuthenticationFilter(
-        AuthenticationManager authenticationManager) {
+        AuthenticationManager authenticationManager, boolean authoritiesInToken) {
         this.authenticationManager = authenticationManager;
+        this.authoritiesInToken = authoritiesInToken;
     }
 
     @Override
@@ -47,15 +55,37 @@ public class JWTAuthenticationFilter extends UsernamePasswordAuthenticationFilte
         HttpServletResponse response, FilterChain chain, Authentication authResult)
         throws IOException, ServletException {
 
-        String username = ((User) authResult.getPrincipal()).getUsername();
+        User user = (User) authResult.getPrincipal();
 
-        String token = Jwts.builder()
-            .setSubject(username)
-            .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-            .signWith(SignatureAlgorithm.HS512, SECRET)
+        JwtBuilder builder = Jwts.builder()
+            .setSubject(user.getUsername())
+            .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME));
+        if (user instanceof EstudosUserDetails) {
+            builder.claim(EPOCH_CLAIM, ((EstudosUserDetails) user).getEpoch());
+        }
+        if (authoritiesInToken) {
+            builder.claim(ROLES_CLAIM, AuthorityUtils.authorityListToSet(user.getAuthorities()));
+        }
+        String token = builder
+            .signWith(SignatureAlgorithm.HS512, SIGNING_KEY)
             .compact();
 
         response.getWriter().write(TOKEN_PRIFIX + token);
         response.addHeader(HEADER_STRING, TOKEN_PRIFIX + token);
     }
+
+    @Override
+    protected void unsuccessfulAuthentication(HttpServletRequest request,
+        HttpServletResponse response, AuthenticationException failed)
+        throws IOException, ServletException {
+        LoginOverloadedException overloaded = LoginOverloadedException.find(failed);
+        if (overloaded == null) {
+            super.unsuccessfulAuthentication(request, response, failed);
+            return;
+        }
+        SecurityContextHolder.clearContext();
+        response.setHeader(HttpHeaders.RETRY_AFTER,
+            String.valueOf(overloaded.getRetryAfterSeconds()));
+        response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), overloaded.getMessage());
+    }
 }
@@ -3,27 +3,56 @@ package br.com.petterson.spring.config;
 import static br.com.petterson.spring.config.SecurityConstants.*;
 
 import br.com.petterson.spring.service.CustomUserDetailService;
+import br.com.petterson.spring.service.UserEpochService;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 public class JWTAuthorizationFilter extends BasicAuthenticationFilter {
 
     private final CustomUserDetailService customUserDetailService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final boolean authoritiesInToken;
+    private final UserEpochService userEpochService;
+    private final Timer authenticatedTimer;
+    private final Timer rejectedTimer;
 
     public JWTAuthorizationFilter(
         AuthenticationManager authenticationManager,
-        CustomUserDetailService customUserDetailService) {
+        CustomUserDetailService customUserDetailService,
+        VerifiedTokenCache verifiedTokenCache,
+        boolean authoritiesInToken,
+        UserEpochService userEpochService,
+        MeterRegistry meterRegistry) {
         super(authenticationManager);
         this.customUserDetailService = customUserDetailService;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.authoritiesInToken = authoritiesInToken;
+        this.userEpochService = userEpochService;
+        this.authenticatedTimer = authorizationTimer(meterRegistry, "authenticated");
+        this.rejectedTimer = authorizationTimer(meterRegistry, "rejected");
+    }
+
+    private static Timer authorizationTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("security.jwt.authorization")
+            .description("Time to turn a bearer token into an authentication")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
     }
 
     @Override
@@ -34,7 +63,18 @@ public class JWTAuthorizationFilter extends BasicAuthenticationFilter {
             chain.doFilter(request, response);
             return;
         }
-        UsernamePasswordAuthenticationToken authenticationToken = getAuthenticationToken(request);
+        RequestTimings requestTimings = RequestTimings.current();
+        long start = System.nanoTime();
+        UsernamePasswordAuthenticationToken authenticationToken = null;
+        try {
+            authenticationToken = getAuthenticationToken(request);
+        } finally {
+            (authenticationToken != null ? authenticatedTimer : rejectedTimer)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (requestTimings != null) {
+                requestTimings.record(RequestTimings.Phase.JWT, start);
+            }
+        }
         SecurityContextHolder.getContext().setAuthentication(authenticationToken);
         chain.doFilter(request, response);
     }
@@ -44,14 +84,63 @@ public class JWTAuthorizationFilter extends BasicAuthenticationFilter {
         if (token == null) {
             return null;
         }
-        String username = Jwts.parser().setSigningKey(SECRET)
-            .parseClaimsJws(token.replace(TOKEN_PRIFIX, ""))
-            .getBody()
-            .getSubject();
+        String jwt = token.replace(TOKEN_PRIFIX, "");
+        VerifiedToken verifiedToken = verifiedTokenCache.get(jwt, this::verify);
+        if (verifiedToken == null) {
+            return null;
+        }
+        if (userEpochService != null && verifiedToken.getEpoch() != null
+            && !isCurrentEpoch(verifiedToken)) {
+            verifiedTokenCache.invalidate(jwt);
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(verifiedToken.getUsername(), null,
+            verifiedToken.getAuthorities());
+    }
+
+    private boolean isCurrentEpoch(VerifiedToken verifiedToken) {
+        RequestTimings requestTimings = RequestTimings.current();
+        long start = requestTimings != null ? System.nanoTime() : 0;
+        try {
+            return userEpochService.isCurrent(verifiedToken.getUsername(), verifiedToken.getEpoch());
+        } finally {
+            if (requestTimings != null) {
+                requestTimings.record(RequestTimings.Phase.USER, start);
+            }
+        }
+    }
+
+    private VerifiedToken verify(String token) {
+        Claims claims = Jwts.parser().setSigningKey(SIGNING_KEY)
+            .parseClaimsJws(token)
+            .getBody();
+        String username = claims.getSubject();
+        if (username == null) {
+            return null;
+        }
 
-        UserDetails userDetails = customUserDetailService.loadUserByUsername(username);
-        return username != null ?
-            new UsernamePasswordAuthenticationToken(username, null, userDetails.getAuthorities())
-            : null;
+        long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime()
+            : System.currentTimeMillis() + EXPIRATION_TIME;
+        Number epoch = claims.get(EPOCH_CLAIM, Number.class);
+        return new VerifiedToken(username, getAuthorities(claims),
+            epoch != null ? epoch.longValue() : null, expiresAt);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<? extends GrantedAuthority> getAuthorities(Claims claims) {
+        List<String> roles = claims.get(ROLES_CLAIM, List.class);
+        if (authoritiesInToken && roles != null) {
+            return AuthorityUtils.createAuthorityList(roles.toArray(new String[0]));
+        }
+        RequestTimings requestTimings = RequestTimings.current();
+        long start = requestTimings != null ? System.nanoTime() : 0;
+        try {
+            return customUserDetailService.loadUserByUsername(claims.getSubject())
+                .getAuthorities();
+        } finally {
+            if (requestTimings != null) {
+                requestTimings.record(RequestTimings.Phase.USER, start);
+            }
+        }
     }
 }
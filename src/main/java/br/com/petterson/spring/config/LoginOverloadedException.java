@@ -0,0 +1,26 @@
+package br.com.petterson.spring.config;
+
+import org.springframework.security.core.AuthenticationException;
+
+public class LoginOverloadedException extends AuthenticationException {
+
+    private final long retryAfterSeconds;
+
+    public LoginOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    static LoginOverloadedException find(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof LoginOverloadedException) {
+                return (LoginOverloadedException) cause;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,72 @@
+package br.com.petterson.spring.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+/**
+ * Replaces the single {@code spring.datasource} pool with a primary and the replicas listed in
+ * {@code datasource.replicas.urls} when that property is set. The replicas share the primary's
+ * driver and, unless overridden, its credentials.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replicas.urls")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @Primary
+    public ReplicaRoutingDataSource dataSource(DataSourceProperties properties,
+        Environment environment, MeterRegistry meterRegistry,
+        @Value("${datasource.replicas.urls}") String[] urls,
+        @Value("${datasource.replicas.username:}") String username,
+        @Value("${datasource.replicas.password:}") String password,
+        @Value("${datasource.replicas.selection:round-robin}") String selection,
+        @Value("${datasource.replicas.maximum-pool-size:10}") int maximumPoolSize,
+        @Value("${datasource.replicas.connection-timeout-millis:1000}") long connectionTimeout) {
+        boolean leastLoaded;
+        if ("least-loaded".equalsIgnoreCase(selection)) {
+            leastLoaded = true;
+        } else if ("round-robin".equalsIgnoreCase(selection)) {
+            leastLoaded = false;
+        } else {
+            throw new IllegalStateException("Unknown replica selection: " + selection);
+        }
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder()
+            .type(HikariDataSource.class)
+            .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+        primary.setMetricRegistry(meterRegistry);
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.length; i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setJdbcUrl(urls[i].trim());
+            replica.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+            replica.setPassword(username.isEmpty() ? properties.determinePassword() : password);
+            replica.setReadOnly(true);
+            replica.setMaximumPoolSize(maximumPoolSize);
+            replica.setConnectionTimeout(connectionTimeout);
+            // a replica that is down at startup is skipped, not fatal
+            replica.setInitializationFailTimeout(-1);
+            replica.setMetricRegistry(meterRegistry);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, leastLoaded, meterRegistry);
+    }
+}
@@ -0,0 +1,181 @@
+package br.com.petterson.spring.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends the connections of read-only transactions to a replica and every other connection to the
+ * primary, so reads made inside a read-write transaction see its own writes. Replicas are picked
+ * round-robin or by fewest active connections; a replica that fails a health check or a
+ * connection attempt is skipped until it passes a check again, and reads go to the primary while
+ * no replica is healthy.
+ *
+ * <p>The read-only flag is only set after the transaction asks for its connection, so the choice
+ * is deferred until the first statement.
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements
+    DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final boolean leastLoaded;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryCounter;
+    private final Counter fallbackCounter;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+        boolean leastLoaded, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.leastLoaded = leastLoaded;
+        for (HikariDataSource dataSource : replicas) {
+            this.replicas.add(new Replica(dataSource, meterRegistry));
+        }
+        this.primaryCounter = routedCounter(meterRegistry, "primary", "write");
+        this.fallbackCounter = routedCounter(meterRegistry, "primary", "fallback");
+        Gauge.builder("datasource.replicas.healthy", this,
+            routing -> routing.replicas.stream().filter(replica -> replica.healthy).count())
+            .description("Replicas currently receiving read-only transactions")
+            .register(meterRegistry);
+        setTargetDataSource(new Router());
+        afterPropertiesSet();
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replicas.health-check-millis:5000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    replica.up();
+                } else {
+                    replica.down(null);
+                }
+            } catch (SQLException e) {
+                replica.down(e);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(replica -> replica.dataSource.close());
+        primary.close();
+    }
+
+    private Replica select() {
+        if (leastLoaded) {
+            Replica selected = null;
+            int selectedLoad = Integer.MAX_VALUE;
+            for (Replica replica : replicas) {
+                int load = replica.activeConnections();
+                if (replica.healthy && load < selectedLoad) {
+                    selected = replica;
+                    selectedLoad = load;
+                }
+            }
+            return selected;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private static Counter routedCounter(MeterRegistry meterRegistry, String target,
+        String reason) {
+        return Counter.builder("datasource.routing.connections")
+            .description("Connections handed out per target: writes and read-write transactions "
+                + "(write), read-only transactions (read) and reads with no healthy replica "
+                + "(fallback)")
+            .tag("target", target)
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+
+    private class Router extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                primaryCounter.increment();
+                return primary.getConnection();
+            }
+            for (int attempt = 0; attempt < replicas.size(); attempt++) {
+                Replica replica = select();
+                if (replica == null) {
+                    break;
+                }
+                try {
+                    Connection connection = replica.dataSource.getConnection();
+                    replica.counter.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    replica.down(e);
+                }
+            }
+            fallbackCounter.increment();
+            return primary.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            // not routed: a pool refusing per-call credentials would mark every replica down
+            primaryCounter.increment();
+            return primary.getConnection(username, password);
+        }
+    }
+
+    private static class Replica {
+
+        private final HikariDataSource dataSource;
+        private final Counter counter;
+        private volatile boolean healthy = true;
+
+        Replica(HikariDataSource dataSource, MeterRegistry meterRegistry) {
+            this.dataSource = dataSource;
+            this.counter = routedCounter(meterRegistry, dataSource.getPoolName(), "read");
+        }
+
+        int activeConnections() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections();
+        }
+
+        void up() {
+            if (!healthy) {
+                log.info("Replica {} is back, routing read-only transactions to it",
+                    dataSource.getPoolName());
+                healthy = true;
+            }
+        }
+
+        void down(SQLException e) {
+            if (healthy) {
+                log.warn("Replica {} is unavailable, skipping it until the next health check: {}",
+                    dataSource.getPoolName(), e != null ? e.getMessage() : "invalid connection");
+                healthy = false;
+            }
+        }
+    }
+}
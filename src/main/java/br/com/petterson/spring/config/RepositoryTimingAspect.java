@@ -0,0 +1,106 @@
+package br.com.petterson.spring.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every call made through a Spring Data repository as
+ * {@code spring.data.repository.invocations}, tagged by repository, method and outcome. The
+ * timers of a method are registered on its first call and looked up afterwards. Being an around
+ * advice, each call still allocates its join point and argument array.
+ */
+@Aspect
+@Component
+public class RepositoryTimingAspect {
+
+    private final MeterRegistry meterRegistry;
+    // keyed by repository proxy class first, since inherited methods such as findAll are shared
+    private final Map<Class<?>, Map<Method, MethodTimers>> timers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RepositoryTimingAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("this(org.springframework.data.repository.Repository)")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object repository = joinPoint.getThis();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Map<Method, MethodTimers> repositoryTimers = timers.get(repository.getClass());
+        if (repositoryTimers == null) {
+            repositoryTimers = timers
+                .computeIfAbsent(repository.getClass(), type -> new ConcurrentHashMap<>());
+        }
+        MethodTimers methodTimers = repositoryTimers.get(method);
+        if (methodTimers == null) {
+            methodTimers = repositoryTimers.computeIfAbsent(method,
+                key -> new MethodTimers(repositoryName(repository), key));
+        }
+        RequestTimings requestTimings = RequestTimings.current();
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            methodTimers.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            methodTimers.error().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        } finally {
+            if (requestTimings != null) {
+                requestTimings.record(RequestTimings.Phase.DB, start);
+            }
+        }
+    }
+
+    private static String repositoryName(Object repository) {
+        for (Class<?> type : AopProxyUtils.proxiedUserInterfaces(repository)) {
+            if (Repository.class.isAssignableFrom(type)) {
+                return type.getSimpleName();
+            }
+        }
+        return repository.getClass().getSimpleName();
+    }
+
+    private class MethodTimers {
+
+        private final String repository;
+        private final Method method;
+        private final Timer success;
+        // registered on the first failure, so methods that never fail do not export an empty series
+        private volatile Timer error;
+
+        MethodTimers(String repository, Method method) {
+            this.repository = repository;
+            this.method = method;
+            this.success = timer("SUCCESS");
+        }
+
+        Timer error() {
+            if (error == null) {
+                error = timer("ERROR");
+            }
+            return error;
+        }
+
+        private Timer timer(String outcome) {
+            return Timer.builder("spring.data.repository.invocations")
+                .description("Time spent in Spring Data repository calls")
+                .tag("repository", repository)
+                .tag("method", method.getName())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+        }
+    }
+}
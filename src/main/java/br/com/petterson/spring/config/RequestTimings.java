@@ -0,0 +1,94 @@
+package br.com.petterson.spring.config;
+
+import java.util.Locale;
+
+/**
+ * Time spent by the current request in each {@link Phase}, collected while
+ * {@link ServerTimingFilter} is enabled. Instrumented code asks for {@link #current()} and skips
+ * timing when it is null, so a disabled collector costs one thread-local read per hook.
+ *
+ * <p>Phases may nest: {@code jwt} includes the {@code user} lookup, which includes its own
+ * {@code db} calls.
+ */
+public final class RequestTimings {
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    public enum Phase {
+        JWT, USER, DB, SERIALIZATION;
+
+        private final String metric = name().toLowerCase(Locale.ROOT);
+    }
+
+    private final long start = System.nanoTime();
+    private final long[] nanos = new long[Phase.values().length];
+    private final int[] counts = new int[Phase.values().length];
+    private volatile long end;
+
+    private RequestTimings() {
+    }
+
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    static RequestTimings start() {
+        RequestTimings timings = new RequestTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Adds the time elapsed since {@code startNanos}, a {@link System#nanoTime()} reading, to the
+     * phase.
+     */
+    public void record(Phase phase, long startNanos) {
+        nanos[phase.ordinal()] += System.nanoTime() - startNanos;
+        counts[phase.ordinal()]++;
+    }
+
+    void finish() {
+        end = System.nanoTime();
+    }
+
+    long totalNanos() {
+        return (end != 0 ? end : System.nanoTime()) - start;
+    }
+
+    /**
+     * The {@code Server-Timing} header value, with durations in milliseconds.
+     */
+    String toHeader() {
+        StringBuilder header = new StringBuilder(96);
+        for (Phase phase : Phase.values()) {
+            if (counts[phase.ordinal()] > 0) {
+                header.append(phase.metric).append(";dur=")
+                    .append(millis(nanos[phase.ordinal()])).append(", ");
+            }
+        }
+        return header.append("total;dur=").append(millis(totalNanos())).toString();
+    }
+
+    /**
+     * The same timings as {@code key=value} pairs for a log line, with call counts.
+     */
+    String toLogFields() {
+        StringBuilder fields = new StringBuilder(128)
+            .append("total_ms=").append(millis(totalNanos()));
+        for (Phase phase : Phase.values()) {
+            fields.append(' ').append(phase.metric).append("_ms=")
+                .append(millis(nanos[phase.ordinal()]))
+                .append(' ').append(phase.metric).append("_calls=")
+                .append(counts[phase.ordinal()]);
+        }
+        return fields.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+}
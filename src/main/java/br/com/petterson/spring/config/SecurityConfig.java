@@ -3,14 +3,16 @@ package br.com.petterson.spring.config;
 import static br.com.petterson.spring.config.SecurityConstants.SIGN_UP_URL;
 
 import br.com.petterson.spring.service.CustomUserDetailService;
+import br.com.petterson.spring.service.UserEpochService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.cors.CorsConfiguration;
 
 @EnableWebSecurity
@@ -19,6 +21,18 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
     @Autowired
     private CustomUserDetailService customUserDetailService;
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+    @Autowired
+    private UserEpochService userEpochService;
+    @Autowired
+    private BoundedPasswordEncoder passwordEncoder;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Value("${security.jwt.authorities-in-token:false}")
+    private boolean authoritiesInToken;
+    @Value("${security.jwt.epoch-check.enabled:false}")
+    private boolean epochCheck;
 //    @Override
 //    protected void configure(HttpSecurity http) throws Exception {
 //        http.authorizeRequests()
@@ -39,15 +53,19 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
             .antMatchers(HttpMethod.GET, SIGN_UP_URL).permitAll()
             .antMatchers("/*/protected/**").hasRole("USER")
             .antMatchers("/*/admin/**").hasRole("ADMIN")
+            .antMatchers("/actuator/health", "/actuator/info").permitAll()
+            .antMatchers("/actuator/**").hasRole("ADMIN")
             .and()
-            .addFilter(new JWTAuthenticationFilter(authenticationManager()))
+            .addFilter(new JWTAuthenticationFilter(authenticationManager(), authoritiesInToken))
             .addFilter(
-                new JWTAuthorizationFilter(authenticationManager(), customUserDetailService));
+                new JWTAuthorizationFilter(authenticationManager(), customUserDetailService,
+                    verifiedTokenCache, authoritiesInToken, epochCheck ? userEpochService : null,
+                    meterRegistry));
     }
 
     @Override
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
         auth.userDetailsService(customUserDetailService)
-            .passwordEncoder(new BCryptPasswordEncoder());
+            .passwordEncoder(passwordEncoder);
     }
 }
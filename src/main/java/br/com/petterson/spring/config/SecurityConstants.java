@@ -1,10 +1,15 @@
 package br.com.petterson.spring.config;
 
+import io.jsonwebtoken.impl.TextCodec;
+
 public class SecurityConstants {
 
     static final String SECRET = "TestJWTAuthentication";
+    static final byte[] SIGNING_KEY = TextCodec.BASE64.decode(SECRET);
     static final String TOKEN_PRIFIX = "Bearer ";
     static final String HEADER_STRING = "Authorization";
     static final String SIGN_UP_URL = "/users/sign-up";
     static final long EXPIRATION_TIME = 86400000L;
+    static final String ROLES_CLAIM = "roles";
+    static final String EPOCH_CLAIM = "epoch";
 }
@@ -0,0 +1,67 @@
+package br.com.petterson.spring.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.EnumSet;
+import javax.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+/**
+ * Registers the {@link ServerTimingFilter} ahead of the security filters, and a JSON converter
+ * that times serialization, when {@code server-timing.enabled} is set. Nothing is registered
+ * otherwise, and the instrumented code only finds no {@link RequestTimings}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "server-timing.enabled", havingValue = "true")
+public class ServerTimingConfig {
+
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(
+        @Value("${server-timing.log-sample-rate:0.01}") double logSampleRate,
+        @Value("${server-timing.max-buffer-bytes:65536}") int maxBufferBytes) {
+        FilterRegistrationBean<ServerTimingFilter> registration = new FilterRegistrationBean<>(
+            new ServerTimingFilter(logSampleRate, maxBufferBytes));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        registration.setDispatcherTypes(EnumSet.of(DispatcherType.REQUEST, DispatcherType.ASYNC));
+        return registration;
+    }
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(
+        ObjectMapper objectMapper) {
+        return new TimedJackson2HttpMessageConverter(objectMapper);
+    }
+
+    private static class TimedJackson2HttpMessageConverter
+        extends MappingJackson2HttpMessageConverter {
+
+        TimedJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+            super(objectMapper);
+        }
+
+        @Override
+        protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+            RequestTimings requestTimings = RequestTimings.current();
+            if (requestTimings == null) {
+                super.writeInternal(object, type, outputMessage);
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                super.writeInternal(object, type, outputMessage);
+            } finally {
+                requestTimings.record(RequestTimings.Phase.SERIALIZATION, start);
+            }
+        }
+    }
+}
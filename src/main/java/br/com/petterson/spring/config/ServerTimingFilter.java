@@ -0,0 +1,70 @@
+package br.com.petterson.spring.config;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * Collects the {@link RequestTimings} of each request and returns them in a
+ * {@code Server-Timing} header. A sampled fraction of requests is also logged as
+ * {@code key=value} pairs.
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ServerTimingFilter.class);
+
+    private final double logSampleRate;
+    private final int maxBufferBytes;
+
+    public ServerTimingFilter(double logSampleRate, int maxBufferBytes) {
+        this.logSampleRate = logSampleRate;
+        this.maxBufferBytes = maxBufferBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // the async dispatch has to release whatever a streaming body left in the buffer
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+        FilterChain chain) throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                ServerTimingResponseWrapper wrapper =
+                    WebUtils.getNativeResponse(response, ServerTimingResponseWrapper.class);
+                if (wrapper != null) {
+                    wrapper.release();
+                }
+            }
+            return;
+        }
+
+        RequestTimings timings = RequestTimings.start();
+        ServerTimingResponseWrapper wrapper =
+            new ServerTimingResponseWrapper(response, maxBufferBytes, timings::toHeader);
+        try {
+            chain.doFilter(request, wrapper);
+        } finally {
+            RequestTimings.clear();
+            timings.finish();
+            if (!isAsyncStarted(request)) {
+                wrapper.release();
+            }
+            if (log.isInfoEnabled() && ThreadLocalRandom.current().nextDouble() < logSampleRate) {
+                log.info("server-timing method={} uri={} status={} {}", request.getMethod(),
+                    request.getRequestURI(), response.getStatus(), timings.toLogFields());
+            }
+        }
+    }
+}
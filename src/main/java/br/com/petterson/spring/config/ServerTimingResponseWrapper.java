@@ -0,0 +1,188 @@
+package br.com.petterson.spring.config;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.function.Supplier;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import org.springframework.util.FastByteArrayOutputStream;
+
+/**
+ * Holds back the body, and with it the commit of the response, until {@link #release()} adds the
+ * {@code Server-Timing} header. A body that outgrows the buffer is released early with the
+ * timings known at that point, so streamed responses are never held in memory.
+ */
+class ServerTimingResponseWrapper extends HttpServletResponseWrapper {
+
+    static final String HEADER = "Server-Timing";
+
+    private final int maxBufferBytes;
+    private final Supplier<String> header;
+    private final FastByteArrayOutputStream buffer = new FastByteArrayOutputStream(1024);
+    private volatile boolean released;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    ServerTimingResponseWrapper(HttpServletResponse response, int maxBufferBytes,
+        Supplier<String> header) {
+        super(response);
+        this.maxBufferBytes = maxBufferBytes;
+        this.header = header;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        if (outputStream == null) {
+            outputStream = new BufferingOutputStream(getResponse().getOutputStream());
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (outputStream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called");
+            }
+            outputStream = new BufferingOutputStream(getResponse().getOutputStream());
+            writer = new PrintWriter(
+                new OutputStreamWriter(outputStream, getCharacterEncoding()), false);
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (released) {
+            super.flushBuffer();
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+        if (!released) {
+            buffer.reset();
+        }
+        super.resetBuffer();
+    }
+
+    @Override
+    public void reset() {
+        if (!released) {
+            buffer.reset();
+        }
+        super.reset();
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        discard();
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        discard();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        discard();
+        super.sendRedirect(location);
+    }
+
+    /**
+     * Sets the header and writes out the buffered body; later writes go straight through.
+     */
+    void release() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        releaseBuffer();
+    }
+
+    private synchronized void releaseBuffer() throws IOException {
+        if (released) {
+            return;
+        }
+        released = true;
+        if (!isCommitted()) {
+            setHeader(HEADER, header.get());
+        }
+        if (buffer.size() > 0) {
+            buffer.writeTo(getResponse().getOutputStream());
+            buffer.reset();
+        }
+    }
+
+    // the container replaces the body of an error or redirect, so only the header is kept
+    private synchronized void discard() {
+        if (!released) {
+            released = true;
+            buffer.reset();
+            setHeader(HEADER, header.get());
+        }
+    }
+
+    private class BufferingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+
+        BufferingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (released) {
+                delegate.write(b);
+                return;
+            }
+            buffer.write(b);
+            releaseIfFull();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (released) {
+                delegate.write(b, off, len);
+                return;
+            }
+            buffer.write(b, off, len);
+            releaseIfFull();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (released) {
+                delegate.flush();
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+
+        private void releaseIfFull() throws IOException {
+            if (buffer.size() > maxBufferBytes) {
+                releaseBuffer();
+            }
+        }
+    }
+}
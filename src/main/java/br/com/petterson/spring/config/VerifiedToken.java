@@ -0,0 +1,36 @@
+package br.com.petterson.spring.config;
+
+import java.util.Collection;
+import org.springframework.security.core.GrantedAuthority;
+
+public class VerifiedToken {
+
+    private final String username;
+    private final Collection<? extends GrantedAuthority> authorities;
+    private final Long epoch;
+    private final long expiresAt;
+
+    public VerifiedToken(String username, Collection<? extends GrantedAuthority> authorities,
+        Long epoch, long expiresAt) {
+        this.username = username;
+        this.authorities = authorities;
+        this.epoch = epoch;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    public Long getEpoch() {
+        return epoch;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -0,0 +1,99 @@
+package br.com.petterson.spring.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the result of verifying a bearer token (signature, expiration and user authorities) so
+ * repeated requests with the same token skip the JWT parsing and the user lookup. Entries are keyed
+ * by a SHA-256 digest of the raw token, live until the token's {@code exp} claim or for
+ * {@code security.jwt.token-cache.ttl-seconds}, whichever comes first, and are softly referenced
+ * so the GC can reclaim them under memory pressure. The short TTL bounds how long another node,
+ * which {@link #invalidateUser} does not reach, keeps authorities the user no longer has.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Cache<String, VerifiedToken> cache;
+
+    @Autowired
+    public VerifiedTokenCache(MeterRegistry meterRegistry,
+        @Value("${security.jwt.token-cache.maximum-size:10000}") long maximumSize,
+        @Value("${security.jwt.token-cache.ttl-seconds:60}") long ttlSeconds) {
+        this(meterRegistry, maximumSize, ttlSeconds, Ticker.systemTicker());
+    }
+
+    VerifiedTokenCache(MeterRegistry meterRegistry, long maximumSize, long ttlSeconds,
+        Ticker ticker) {
+        this.cache = Caffeine.newBuilder()
+            .ticker(ticker)
+            .maximumSize(maximumSize)
+            .expireAfter(new UntilTokenExpiration(TimeUnit.SECONDS.toNanos(ttlSeconds)))
+            .softValues()
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "verifiedTokens");
+    }
+
+    public VerifiedToken get(String token, Function<String, VerifiedToken> verifier) {
+        return cache.get(digest(token), key -> verifier.apply(token));
+    }
+
+    public void invalidate(String token) {
+        cache.invalidate(digest(token));
+    }
+
+    public void invalidateUser(String username) {
+        cache.asMap().values().removeIf(token -> token.getUsername().equals(username));
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                .digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class UntilTokenExpiration implements Expiry<String, VerifiedToken> {
+
+        private final long maximumNanos;
+
+        UntilTokenExpiration(long maximumNanos) {
+            this.maximumNanos = maximumNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            long remaining = value.getExpiresAt() - System.currentTimeMillis();
+            return Math.min(TimeUnit.MILLISECONDS.toNanos(Math.max(remaining, 0)), maximumNanos);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime,
+            long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime,
+            long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package br.com.petterson.spring.endpoint;
+
+import br.com.petterson.spring.error.InvalidRequestException;
+
+public enum CountStrategy {
+    NONE, CACHED, EXACT;
+
+    public static CountStrategy from(String value) {
+        for (CountStrategy strategy : values()) {
+            if (strategy.name().equalsIgnoreCase(value)) {
+                return strategy;
+            }
+        }
+        throw new InvalidRequestException("Unknown count strategy: " + value);
+    }
+}
@@ -1,15 +1,55 @@
 package br.com.petterson.spring.endpoint;
 
 
+import br.com.petterson.spring.error.InvalidRequestException;
 import br.com.petterson.spring.error.ResourceNotFoundException;
+import br.com.petterson.spring.model.BulkDeleteResult;
+import br.com.petterson.spring.model.CursorPage;
+import br.com.petterson.spring.model.MultiGetResponse;
 import br.com.petterson.spring.model.Student;
+import br.com.petterson.spring.model.StudentBatchOperation;
+import br.com.petterson.spring.model.StudentBatchResult;
+import br.com.petterson.spring.model.StudentDTO;
+import br.com.petterson.spring.model.StudentFields;
+import br.com.petterson.spring.model.StudentImportReport;
 import br.com.petterson.spring.repository.StudentRepository;
+import br.com.petterson.spring.repository.StudentVersionView;
+import br.com.petterson.spring.service.ReadCoalescer;
+import br.com.petterson.spring.service.StudentBatchService;
+import br.com.petterson.spring.service.StudentCountCache;
+import br.com.petterson.spring.service.StudentExportService;
+import br.com.petterson.spring.service.StudentFileFormat;
+import br.com.petterson.spring.service.StudentImportService;
+import br.com.petterson.spring.service.StudentNameIndex;
+import br.com.petterson.spring.service.StudentQueryService;
+import br.com.petterson.spring.service.StudentUpdateService;
+import br.com.petterson.spring.util.EntityTags;
+import br.com.petterson.spring.util.SeekCursor;
+import br.com.petterson.spring.util.TextNormalizer;
 import io.swagger.annotations.ApiImplicitParam;
 import io.swagger.annotations.ApiImplicitParams;
 import io.swagger.annotations.ApiOperation;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 import javax.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -18,74 +58,392 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("v1")
 public class StudentEndpoint {
 
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
     private final StudentRepository studentDAO;
+    private final StudentQueryService studentQueryService;
+    private final StudentCountCache studentCountCache;
+    private final StudentNameIndex studentNameIndex;
+    private final StudentBatchService studentBatchService;
+    private final StudentExportService studentExportService;
+    private final StudentImportService studentImportService;
+    private final StudentUpdateService studentUpdateService;
+    private final ReadCoalescer readCoalescer;
+    private final CountStrategy defaultCountStrategy;
+    private final int maxBatchOperations;
+    private final int maxMultiGetIds;
+    private final int maxBulkDeleteIds;
 
     @Autowired
-    public StudentEndpoint(StudentRepository studentDAO) {
+    public StudentEndpoint(StudentRepository studentDAO, StudentQueryService studentQueryService,
+        StudentCountCache studentCountCache, StudentNameIndex studentNameIndex,
+        StudentBatchService studentBatchService, StudentExportService studentExportService,
+        StudentImportService studentImportService,
+        StudentUpdateService studentUpdateService, ReadCoalescer readCoalescer,
+        @Value("${students.count-strategy:exact}") String defaultCountStrategy,
+        @Value("${students.batch.max-operations:10000}") int maxBatchOperations,
+        @Value("${students.multi-get.max-ids:100}") int maxMultiGetIds,
+        @Value("${students.bulk-delete.max-ids:50000}") int maxBulkDeleteIds) {
         this.studentDAO = studentDAO;
+        this.studentQueryService = studentQueryService;
+        this.studentCountCache = studentCountCache;
+        this.studentNameIndex = studentNameIndex;
+        this.studentBatchService = studentBatchService;
+        this.studentExportService = studentExportService;
+        this.studentImportService = studentImportService;
+        this.studentUpdateService = studentUpdateService;
+        this.readCoalescer = readCoalescer;
+        this.maxBatchOperations = maxBatchOperations;
+        this.maxMultiGetIds = maxMultiGetIds;
+        this.maxBulkDeleteIds = maxBulkDeleteIds;
+        this.defaultCountStrategy = CountStrategy.from(defaultCountStrategy);
     }
 
     @GetMapping(path = "protected/students")
     @ApiOperation(value = "Return a list with all students", response = Student[].class)
-    public ResponseEntity<?> listAll(Pageable pageable) {
-        return new ResponseEntity<>(studentDAO.findAll(pageable), HttpStatus.OK);
+    public ResponseEntity<?> listAll(Pageable pageable,
+        @RequestParam(name = "count", required = false) String count,
+        @RequestParam(name = "fields", required = false) String fields,
+        @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        CountStrategy countStrategy = count != null ? CountStrategy.from(count)
+            : defaultCountStrategy;
+        List<String> selected = StudentFields.parse(fields);
+        if (ifNoneMatch != null) {
+            // id and version of the page rows are enough to tell whether it changed
+            Slice<StudentVersionView> versions = studentQueryService.findVersions(pageable);
+            String etag = pageTag(countStrategy, pageable, selected, total(countStrategy),
+                versions);
+            if (EntityTags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+
+        Slice<? extends StudentVersionView> students;
+        long total;
+        switch (countStrategy) {
+            case NONE:
+                students = selected == null ? studentQueryService.findSlice(pageable)
+                    : studentQueryService.findFieldsSlice(selected, pageable);
+                total = -1;
+                break;
+            case CACHED:
+                Slice<? extends StudentVersionView> slice = selected == null
+                    ? studentQueryService.findSlice(pageable)
+                    : studentQueryService.findFieldsSlice(selected, pageable);
+                total = studentCountCache.get();
+                students = new PageImpl<>(slice.getContent(), pageable,
+                    pageTotal(slice, pageable, total));
+                break;
+            default:
+                Page<? extends StudentVersionView> page = selected == null
+                    ? studentQueryService.findPage(pageable)
+                    : studentQueryService.findFieldsPage(selected, pageable);
+                total = page.getTotalElements();
+                students = page;
+                break;
+        }
+        String etag = pageTag(countStrategy, pageable, selected, total, students);
+        return ResponseEntity.ok().eTag(etag).body(students);
+    }
+
+    /**
+     * A total that agrees with the slice on whether there is a next page, which a stale cached
+     * count may not; the conditional path tags the page by the slice's {@code hasNext} as well.
+     */
+    private static long pageTotal(Slice<?> slice, Pageable pageable, long cachedTotal) {
+        long rowsUpToThisPage = pageable.getOffset() + slice.getNumberOfElements();
+        return slice.hasNext() ? Math.max(cachedTotal, rowsUpToThisPage + 1) : rowsUpToThisPage;
+    }
+
+    private long total(CountStrategy countStrategy) {
+        switch (countStrategy) {
+            case NONE:
+                return -1;
+            case CACHED:
+                return studentCountCache.get();
+            default:
+                return studentQueryService.count();
+        }
+    }
+
+    private static String pageTag(CountStrategy countStrategy, Pageable pageable,
+        List<String> fields, long total, Slice<? extends StudentVersionView> rows) {
+        return EntityTags.digest(countStrategy + "|" + pageable + "|" + fields + "|" + total
+            + "|" + rows.hasNext() + "|" + rows.getContent().stream()
+            .map(row -> row.getId() + ":" + row.getVersion())
+            .collect(Collectors.joining(",")));
+    }
+
+    /**
+     * The version tag of the whole student, so it can be sent back in {@code If-Match}, or a tag
+     * that also tells the selected fields apart.
+     */
+    private static String studentTag(long version, List<String> fields) {
+        return fields == null ? EntityTags.of(version)
+            : EntityTags.digest(version + "|" + fields);
+    }
+
+    @GetMapping(path = "protected/students", params = "cursor")
+    @ApiOperation(value = "Return the students after a cursor", response = CursorPage.class)
+    public ResponseEntity<?> listAllByCursor(@RequestParam String cursor,
+        @RequestParam(defaultValue = "10") int size,
+        @RequestParam(defaultValue = SeekCursor.SORT_BY_ID) String sort) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new InvalidRequestException(
+                "Page size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+        if (!SeekCursor.isSupportedSort(sort)) {
+            throw new InvalidRequestException("Unsupported sort for cursor listing: " + sort);
+        }
+        // one extra row tells whether there is a next page without running a count
+        Pageable limit = PageRequest.of(0, size + 1);
+        SeekCursor seekCursor = cursor.isEmpty() ? null : SeekCursor.decode(cursor);
+        String sortKey = seekCursor != null ? seekCursor.getSort() : sort;
+        List<StudentDTO> students;
+        if (SeekCursor.SORT_BY_NAME.equals(sortKey)) {
+            students = seekCursor == null ? studentQueryService.findFirstByName(limit)
+                : studentQueryService.findNextByName(seekCursor.getValue(), seekCursor.getId(),
+                    limit);
+        } else {
+            students = seekCursor == null ? studentQueryService.findFirstById(limit)
+                : studentQueryService.findNextById(seekCursor.getId(), limit);
+        }
+
+        String nextCursor = null;
+        if (students.size() > size) {
+            students = students.subList(0, size);
+            StudentDTO last = students.get(size - 1);
+            nextCursor = new SeekCursor(sortKey,
+                SeekCursor.SORT_BY_NAME.equals(sortKey) ? last.getName() : null,
+                last.getId()).encode();
+        }
+        return new ResponseEntity<>(new CursorPage<>(students, size, nextCursor), HttpStatus.OK);
+    }
+
+    @GetMapping(path = "protected/students", params = "ids")
+    @ApiOperation(value = "Return the students with the given ids, in request order, and the ids "
+        + "that were not found", response = MultiGetResponse.class)
+    public ResponseEntity<?> findByIds(@RequestParam List<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        if (requested.size() > maxMultiGetIds) {
+            throw new InvalidRequestException(
+                "A lookup accepts at most " + maxMultiGetIds + " ids");
+        }
+        Map<Long, StudentDTO> found = new HashMap<>();
+        studentQueryService.findAllById(requested)
+            .forEach(student -> found.put(student.getId(), student));
+
+        List<StudentDTO> content = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            StudentDTO student = found.get(id);
+            if (student != null) {
+                content.add(student);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new ResponseEntity<>(new MultiGetResponse<>(content, missing), HttpStatus.OK);
+    }
+
+    @GetMapping(path = "protected/students/export")
+    @ApiOperation(value = "Stream every student after afterId, in id order, as NDJSON or CSV")
+    public ResponseEntity<StreamingResponseBody> export(
+        @RequestParam(defaultValue = "ndjson") String format,
+        @RequestParam(defaultValue = "0") long afterId) {
+        StudentFileFormat exportFormat = StudentFileFormat.from(format);
+        if (exportFormat == null) {
+            throw new InvalidRequestException("Unsupported export format: " + format);
+        }
+        StreamingResponseBody body = out -> studentExportService.export(exportFormat, afterId, out);
+        return ResponseEntity.ok()
+            .contentType(exportFormat.getMediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"students."
+                + exportFormat.name().toLowerCase() + "\"")
+            .body(body);
     }
 
     @GetMapping(path = "protected/students/{id}")
     @ApiOperation(value = "Return a stundent by id", response = Student[].class)
-    public ResponseEntity<?> getStudentById(@PathVariable("id") Long id) {
-        try {
-            Student student = studentDAO.findById(id).get();
-            return new ResponseEntity<>(student, HttpStatus.OK);
-        } catch (Exception e) {
+    public ResponseEntity<?> getStudentById(@PathVariable("id") Long id,
+        @RequestParam(name = "fields", required = false) String fields,
+        @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        List<String> selected = StudentFields.parse(fields);
+        if (ifNoneMatch != null) {
+            Long version = studentQueryService.findVersionById(id);
+            if (version == null) {
+                throw new ResourceNotFoundException("Student not found for ID: " + id);
+            }
+            String etag = studentTag(version, selected);
+            if (EntityTags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+        Optional<? extends StudentVersionView> student = selected == null
+            ? readCoalescer.read("findById", id, () -> studentQueryService.findById(id))
+            : readCoalescer.read("findFieldsById", Arrays.asList(id, selected),
+                () -> studentQueryService.findFieldsById(selected, id));
+        if (!student.isPresent()) {
             throw new ResourceNotFoundException("Student not found for ID: " + id);
         }
+        return ResponseEntity.ok().eTag(studentTag(student.get().getVersion(), selected))
+            .body(student.get());
     }
 
     @GetMapping(path = "protected/students/findbyname/{name}")
     @ApiOperation(value = "Return student by name", response = Student[].class)
-    public ResponseEntity<?> findByName(@PathVariable String name) {
-        return new ResponseEntity<>(studentDAO.findByNameIgnoreCaseContaining(name), HttpStatus.OK);
+    public ResponseEntity<?> findByName(@PathVariable String name,
+        @RequestParam(name = "fields", required = false) String fields) {
+        List<String> selected = StudentFields.parse(fields);
+        String operation = studentNameIndex.canSearch(name) ? "findByNameIndexed" : "findByName";
+        if (selected == null) {
+            return new ResponseEntity<>(readCoalescer.read(operation, name,
+                () -> studentQueryService.findByName(name)), HttpStatus.OK);
+        }
+        return new ResponseEntity<>(readCoalescer.read(operation + "Fields",
+            Arrays.asList(name, selected),
+            () -> studentQueryService.findFieldsByName(selected, name)), HttpStatus.OK);
+    }
+
+    @GetMapping(path = "protected/students/search")
+    @ApiOperation(value = "Return a page of students whose name starts with the prefix, "
+        + "ignoring case and accents", response = Student[].class)
+    public ResponseEntity<?> searchByName(@RequestParam String prefix, Pageable pageable) {
+        String normalizedPrefix = TextNormalizer.normalize(prefix.trim());
+        if (normalizedPrefix.isEmpty()) {
+            throw new InvalidRequestException("Search prefix must not be empty");
+        }
+        return new ResponseEntity<>(
+            studentQueryService.searchByNormalizedPrefix(normalizedPrefix, pageable),
+            HttpStatus.OK);
     }
 
     @PostMapping(path = "admin/students")
     @ApiOperation(value = "save student", response = Student[].class)
     public ResponseEntity<?> save(@Valid @RequestBody Student student) {
-        return new ResponseEntity<>(studentDAO.save(student), HttpStatus.CREATED);
+        if (student.getId() != null) {
+            // the version is not part of the JSON, so merging an existing row would fail the
+            // optimistic lock check; overwrite it as PUT does instead
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("name", student.getName());
+            values.put("email", student.getEmail());
+            Optional<Student> updated = studentUpdateService.update(student.getId(), null, values);
+            if (updated.isPresent()) {
+                return ResponseEntity.ok().eTag(EntityTags.of(updated.get().getVersion()))
+                    .body(updated.get());
+            }
+        }
+        Student saved = studentDAO.save(student);
+        studentCountCache.added(1);
+        return new ResponseEntity<>(saved, HttpStatus.CREATED);
+    }
+
+    @PostMapping(path = "admin/students/batch")
+    @ApiOperation(value = "apply a list of student creates, updates and deletes",
+        response = StudentBatchResult[].class)
+    public ResponseEntity<?> batch(@RequestBody List<StudentBatchOperation> operations) {
+        if (operations.size() > maxBatchOperations) {
+            throw new InvalidRequestException(
+                "A batch accepts at most " + maxBatchOperations + " operations");
+        }
+        return new ResponseEntity<>(studentBatchService.apply(operations), HttpStatus.OK);
+    }
+
+    @PostMapping(path = "admin/students/import")
+    @ApiOperation(value = "insert the students of an NDJSON or CSV body, reporting rejected rows",
+        response = StudentImportReport.class)
+    public ResponseEntity<?> importStudents(
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) {
+        StudentFileFormat importFormat = StudentFileFormat.fromContentType(contentType);
+        if (importFormat == null) {
+            throw new InvalidRequestException("Unsupported import content type: " + contentType);
+        }
+        return new ResponseEntity<>(studentImportService.importStudents(importFormat, body),
+            HttpStatus.OK);
     }
 
     @DeleteMapping(path = "admin/students/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @ApiOperation(value = "delete student by id", response = Student[].class)
     public ResponseEntity<?> delete(@PathVariable Long id) {
+        // removing the entity only evicts this student from the L2 cache, unlike a bulk DELETE
         try {
             studentDAO.deleteById(id);
-            return new ResponseEntity<>(HttpStatus.OK);
-        } catch (Exception e) {
+        } catch (EmptyResultDataAccessException e) {
             throw new ResourceNotFoundException("Student not found for ID: " + id);
         }
+        studentCountCache.removed(1);
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    @DeleteMapping(path = "admin/students")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ApiOperation(value = "delete the students with the given ids",
+        notes = "All ids are deleted in one transaction: when the request fails, none are.",
+        response = BulkDeleteResult.class)
+    public ResponseEntity<?> deleteAll(@RequestBody List<Long> ids) {
+        List<Long> requested = new ArrayList<>(new LinkedHashSet<>(ids));
+        requested.remove(null);
+        if (requested.size() > maxBulkDeleteIds) {
+            throw new InvalidRequestException(
+                "A bulk delete accepts at most " + maxBulkDeleteIds + " ids");
+        }
+        int deleted = studentDAO.deleteAllByIdIn(requested);
+        if (deleted == 0) {
+            throw new ResourceNotFoundException("No student found for the given IDs");
+        }
+        // the bulk statement skips StudentListener, so mirror what it would have done
+        requested.forEach(studentNameIndex::remove);
+        studentCountCache.removed(deleted);
+        return new ResponseEntity<>(new BulkDeleteResult(requested.size(), deleted),
+            HttpStatus.OK);
     }
 
     @PutMapping(path = "admin/students")
     @ApiOperation(value = "update student", response = Student[].class)
-    public ResponseEntity<?> update(@RequestBody Student student) {
-        try {
-            studentDAO.save(student);
-            return new ResponseEntity<>(HttpStatus.OK);
-        } catch (Exception e) {
+    public ResponseEntity<?> update(@RequestBody Student student,
+        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (student.getId() == null) {
             throw new ResourceNotFoundException("Student not found for ID: " + student.getId());
         }
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("name", student.getName());
+        values.put("email", student.getEmail());
+        return conditionalUpdate(student.getId(), ifMatch, values);
+    }
+
+    @PatchMapping(path = "admin/students/{id}")
+    @ApiOperation(value = "update only the student fields sent")
+    public ResponseEntity<?> patch(@PathVariable Long id, @RequestBody Map<String, Object> changes,
+        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (changes.isEmpty()) {
+            throw new InvalidRequestException("Nothing to update");
+        }
+        return conditionalUpdate(id, ifMatch, changes);
+    }
+
+    private ResponseEntity<?> conditionalUpdate(Long id, String ifMatch,
+        Map<String, Object> values) {
+        List<Long> expectedVersions = ifMatch != null ? EntityTags.parseVersions(ifMatch) : null;
+        Student student = studentUpdateService.update(id, expectedVersions, values)
+            .orElseThrow(() -> new ResourceNotFoundException("Student not found for ID: " + id));
+        return ResponseEntity.ok().eTag(EntityTags.of(student.getVersion())).build();
     }
 }
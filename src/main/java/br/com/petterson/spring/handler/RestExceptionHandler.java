@@ -1,6 +1,8 @@
 package br.com.petterson.spring.handler;
 
 import br.com.petterson.spring.error.ErrorDetail;
+import br.com.petterson.spring.error.InvalidRequestException;
+import br.com.petterson.spring.error.PreconditionFailedException;
 import br.com.petterson.spring.error.ResourceNotFoundDetails;
 import br.com.petterson.spring.error.ResourceNotFoundDetails.Builder;
 import br.com.petterson.spring.error.ResourceNotFoundException;
@@ -12,6 +14,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -37,6 +40,52 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(rfnBuilder, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<?> handlerInvalidRequestException(
+        InvalidRequestException irException) {
+        ErrorDetail errorDetail = ErrorDetail.Builder
+            .newBuilder()
+            .timestamp(new Date().getTime())
+            .status(HttpStatus.BAD_REQUEST.value())
+            .title("Bad Request")
+            .detail(irException.getMessage())
+            .developerMessage(irException.getClass().getName())
+            .build();
+
+        return new ResponseEntity<>(errorDetail, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<?> handlerPreconditionFailedException(
+        PreconditionFailedException pfException) {
+        ErrorDetail errorDetail = ErrorDetail.Builder
+            .newBuilder()
+            .timestamp(new Date().getTime())
+            .status(HttpStatus.PRECONDITION_FAILED.value())
+            .title("Precondition Failed")
+            .detail(pfException.getMessage())
+            .developerMessage(pfException.getClass().getName())
+            .build();
+
+        return new ResponseEntity<>(errorDetail, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    // another write got in between reading the entity and flushing its versioned UPDATE
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<?> handlerObjectOptimisticLockingFailureException(
+        ObjectOptimisticLockingFailureException oolfException) {
+        ErrorDetail errorDetail = ErrorDetail.Builder
+            .newBuilder()
+            .timestamp(new Date().getTime())
+            .status(HttpStatus.PRECONDITION_FAILED.value())
+            .title("Precondition Failed")
+            .detail("Modified by another request in the meantime; read it again and retry")
+            .developerMessage(oolfException.getClass().getName())
+            .build();
+
+        return new ResponseEntity<>(errorDetail, HttpStatus.PRECONDITION_FAILED);
+    }
+
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(
         MethodArgumentNotValidException manvException, HttpHeaders headers, HttpStatus status,
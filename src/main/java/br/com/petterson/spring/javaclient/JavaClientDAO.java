@@ -1,44 +1,86 @@
 package br.com.petterson.spring.javaclient;
 
 import br.com.petterson.spring.handler.RestResponseExceptionHandler;
+import br.com.petterson.spring.model.MultiGetResponse;
 import br.com.petterson.spring.model.PageableResponse;
 import br.com.petterson.spring.model.Student;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
 
 public class JavaClientDAO {
 
+    private static final int MAX_CACHED_RESPONSES = 100;
 
-    private RestTemplate restTemplate = new RestTemplateBuilder()
-        .rootUri("http://localhost:8080/v1/protected/students")
-        .basicAuthentication("santos", "123456")
-        .errorHandler(new RestResponseExceptionHandler())
-        .build();
+    private final RestTemplate restTemplate;
+    private final RestTemplate restTemplateAdmin;
 
-    private RestTemplate restTemplateAdmin = new RestTemplateBuilder()
-        .rootUri("http://localhost:8080/v1/admin/students")
-        .basicAuthentication("petterson", "123456")
-        .errorHandler(new RestResponseExceptionHandler())
-        .build();
+    // last body and ETag per URI, least recently used evicted first
+    private final Map<String, CachedResponse> cache = Collections.synchronizedMap(
+        new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > MAX_CACHED_RESPONSES;
+            }
+        });
+
+    public JavaClientDAO() {
+        this(new RestTemplateBuilder()
+                .rootUri("http://localhost:8080/v1/protected/students")
+                .basicAuthentication("santos", "123456")
+                .errorHandler(new RestResponseExceptionHandler())
+                .build(),
+            new RestTemplateBuilder()
+                .rootUri("http://localhost:8080/v1/admin/students")
+                .basicAuthentication("petterson", "123456")
+                .errorHandler(new RestResponseExceptionHandler())
+                .build());
+    }
+
+    JavaClientDAO(RestTemplate restTemplate, RestTemplate restTemplateAdmin) {
+        this.restTemplate = restTemplate;
+        this.restTemplateAdmin = restTemplateAdmin;
+    }
 
     public Student findById(long id) {
-        return restTemplate.getForObject("/{id}", Student.class, id);
+        return getConditional("/{id}", new ParameterizedTypeReference<Student>() {
+        }, id);
 //        ResponseEntity<Student> forEntity = restTemplate.getForEntity("/{id}", Student.class, 10);
     }
 
+    public MultiGetResponse<Student> findByIds(long... ids) {
+        String idList = Arrays.stream(ids).mapToObj(String::valueOf)
+            .collect(Collectors.joining(","));
+        ResponseEntity<MultiGetResponse<Student>> exchange = restTemplate
+            .exchange("/?ids={ids}", HttpMethod.GET, null,
+                new ParameterizedTypeReference<MultiGetResponse<Student>>() {
+                }, idList);
+        return exchange.getBody();
+    }
+
     public List<Student> listAll() {
+        return getConditional("/", new ParameterizedTypeReference<PageableResponse<Student>>() {
+        }).getContent();
+    }
+
+    public PageableResponse<Student> listAllByCursor(String cursor) {
         ResponseEntity<PageableResponse<Student>> exchange = restTemplate
-            .exchange("/", HttpMethod.GET, null,
+            .exchange("/?cursor={cursor}", HttpMethod.GET, null,
                 new ParameterizedTypeReference<PageableResponse<Student>>() {
-                });
-        return exchange.getBody().getContent();
+                }, cursor != null ? cursor : "");
+        return exchange.getBody();
     }
 
     public Student save(Student student) {
@@ -57,6 +99,43 @@ public class JavaClientDAO {
         restTemplateAdmin.delete("/{id}", id);
     }
 
+    /**
+     * GET that revalidates the cached copy with If-None-Match and reuses it on a 304.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T getConditional(String uri, ParameterizedTypeReference<T> type,
+        Object... uriVariables) {
+        String key = restTemplate.getUriTemplateHandler().expand(uri, uriVariables).toString();
+        CachedResponse cached = cache.get(key);
+        HttpHeaders headers = new HttpHeaders();
+        if (cached != null) {
+            headers.setIfNoneMatch(cached.etag);
+        }
+        ResponseEntity<T> response = restTemplate
+            .exchange(uri, HttpMethod.GET, new HttpEntity<>(headers), type, uriVariables);
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && cached != null) {
+            return (T) cached.body;
+        }
+        String etag = response.getHeaders().getETag();
+        if (etag != null && response.getBody() != null) {
+            cache.put(key, new CachedResponse(etag, response.getBody()));
+        } else {
+            cache.remove(key);
+        }
+        return response.getBody();
+    }
+
+    private static class CachedResponse {
+
+        private final String etag;
+        private final Object body;
+
+        CachedResponse(String etag, Object body) {
+            this.etag = etag;
+            this.body = body;
+        }
+    }
+
     private static HttpHeaders createJsonHeader() {
         HttpHeaders httpHeaders = new HttpHeaders();
         httpHeaders.setContentType(MediaType.APPLICATION_JSON);
@@ -0,0 +1,35 @@
+package br.com.petterson.spring.listener;
+
+import br.com.petterson.spring.model.Student;
+import br.com.petterson.spring.service.StudentNameIndex;
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+@Component
+public class StudentListener {
+
+    private final StudentNameIndex studentNameIndex;
+
+    @Autowired
+    public StudentListener(@Lazy StudentNameIndex studentNameIndex) {
+        this.studentNameIndex = studentNameIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Student student) {
+        Long id = student.getId();
+        String name = student.getName();
+        AfterCommit.run(() -> studentNameIndex.index(id, name));
+    }
+
+    @PostRemove
+    public void onRemove(Student student) {
+        Long id = student.getId();
+        AfterCommit.run(() -> studentNameIndex.remove(id));
+    }
+}
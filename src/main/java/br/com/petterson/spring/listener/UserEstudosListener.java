@@ -0,0 +1,46 @@
+package br.com.petterson.spring.listener;
+
+import br.com.petterson.spring.config.VerifiedTokenCache;
+import br.com.petterson.spring.model.UserEstudos;
+import br.com.petterson.spring.service.CustomUserDetailService;
+import br.com.petterson.spring.service.UserEpochService;
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops every cached view of a user (details, epoch and verified tokens) once a change to its
+ * {@link UserEstudos} row is committed.
+ */
+@Component
+public class UserEstudosListener {
+
+    private final CustomUserDetailService customUserDetailService;
+    private final UserEpochService userEpochService;
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    public UserEstudosListener(@Lazy CustomUserDetailService customUserDetailService,
+        @Lazy UserEpochService userEpochService, @Lazy VerifiedTokenCache verifiedTokenCache) {
+        this.customUserDetailService = customUserDetailService;
+        this.userEpochService = userEpochService;
+        this.verifiedTokenCache = verifiedTokenCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(UserEstudos user) {
+        String username = user.getUsername();
+        AfterCommit.run(() -> evict(username));
+    }
+
+    private void evict(String username) {
+        customUserDetailService.evict(username);
+        userEpochService.invalidate(username);
+        verifiedTokenCache.invalidateUser(username);
+    }
+}
@@ -0,0 +1,20 @@
+package br.com.petterson.spring.model;
+
+public class BulkDeleteResult {
+
+    private final int requested;
+    private final int deleted;
+
+    public BulkDeleteResult(int requested, int deleted) {
+        this.requested = requested;
+        this.deleted = deleted;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public int getDeleted() {
+        return deleted;
+    }
+}
@@ -0,0 +1,38 @@
+package br.com.petterson.spring.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a lookup by id list: the entities found, in request order, and the ids that were not
+ * found.
+ */
+public class MultiGetResponse<T> {
+
+    private List<T> content = new ArrayList<>();
+    private List<Long> missing = new ArrayList<>();
+
+    public MultiGetResponse() {
+    }
+
+    public MultiGetResponse(List<T> content, List<Long> missing) {
+        this.content = content;
+        this.missing = missing;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public List<Long> getMissing() {
+        return missing;
+    }
+
+    public void setMissing(List<Long> missing) {
+        this.missing = missing;
+    }
+}
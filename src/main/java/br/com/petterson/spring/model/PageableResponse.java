@@ -13,6 +13,7 @@ public class PageableResponse<T> extends PageImpl<T> {
     private boolean first;
     private boolean last;
     private int totalPages;
+    private String nextCursor;
 
     @JsonCreator(mode = JsonCreator.Mode.PROPERTIES)
     public PageableResponse(@JsonProperty("content") List<T> content,
@@ -24,8 +25,14 @@ public class PageableResponse<T> extends PageImpl<T> {
         @JsonProperty("last") boolean last,
         @JsonProperty("totalPages") int totalPages,
         @JsonProperty("sort") JsonNode sort,
-        @JsonProperty("numberOfElements") int numberOfElements) {
-        super(content, PageRequest.of(number, size), totalElements);
+        @JsonProperty("numberOfElements") int numberOfElements,
+        @JsonProperty("nextCursor") String nextCursor) {
+        super(content, PageRequest.of(number, Math.max(size, 1)),
+            totalElements != null ? totalElements : content.size());
+        this.first = first;
+        this.last = last;
+        this.totalPages = totalPages;
+        this.nextCursor = nextCursor;
     }
 
     public PageableResponse() {
@@ -50,6 +57,11 @@ public class PageableResponse<T> extends PageImpl<T> {
         this.last = last;
     }
 
+    @Override
+    public boolean hasNext() {
+        return !last;
+    }
+
     @Override
     public int getTotalPages() {
         return totalPages;
@@ -58,4 +70,12 @@ public class PageableResponse<T> extends PageImpl<T> {
     public void setTotalPages(int totalPages) {
         this.totalPages = totalPages;
     }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
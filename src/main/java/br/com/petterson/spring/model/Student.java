@@ -1,10 +1,29 @@
 package br.com.petterson.spring.model;
 
+import br.com.petterson.spring.listener.StudentListener;
+import br.com.petterson.spring.util.TextNormalizer;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
+import javax.persistence.Index;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotEmpty;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "students")
+@EntityListeners(StudentListener.class)
+@Table(indexes = {
+    @Index(name = "idx_student_name_id", columnList = "name,id"),
+    @Index(name = "idx_student_name_normalized", columnList = "name_normalized")})
 public class Student extends AbstractEntity {
 
     @NotEmpty
@@ -12,6 +31,14 @@ public class Student extends AbstractEntity {
     @NotEmpty
     @Email
     private String email;
+    @JsonIgnore
+    @Column(name = "name_normalized")
+    private String nameNormalized;
+    // the default fills the column for rows that existed before it was added
+    @JsonIgnore
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
 
     public Student() {
     }
@@ -45,6 +72,20 @@ public class Student extends AbstractEntity {
         this.name = name;
     }
 
+    public String getNameNormalized() {
+        return nameNormalized;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void normalizeName() {
+        this.nameNormalized = TextNormalizer.normalize(name);
+    }
+
     @Override
     public String toString() {
         return "Student{" +
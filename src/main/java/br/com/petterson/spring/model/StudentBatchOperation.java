@@ -0,0 +1,69 @@
+package br.com.petterson.spring.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import java.util.Locale;
+
+public class StudentBatchOperation {
+
+    private Type op;
+    private Long id;
+    private String name;
+    private String email;
+
+    public StudentBatchOperation() {
+    }
+
+    public StudentBatchOperation(Type op, Long id, String name, String email) {
+        this.op = op;
+        this.id = id;
+        this.name = name;
+        this.email = email;
+    }
+
+    public Type getOp() {
+        return op;
+    }
+
+    public void setOp(Type op) {
+        this.op = op;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public enum Type {
+        CREATE, UPDATE, DELETE;
+
+        @JsonCreator
+        public static Type from(String value) {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        }
+
+        @JsonValue
+        public String toValue() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+}
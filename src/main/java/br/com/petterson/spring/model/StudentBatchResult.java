@@ -0,0 +1,44 @@
+package br.com.petterson.spring.model;
+
+import br.com.petterson.spring.error.ErrorDetail;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+@JsonInclude(Include.NON_NULL)
+public class StudentBatchResult {
+
+    private final int index;
+    private final StudentBatchOperation.Type op;
+    private final Long id;
+    private final int status;
+    private final ErrorDetail error;
+
+    public StudentBatchResult(int index, StudentBatchOperation.Type op, Long id, int status,
+        ErrorDetail error) {
+        this.index = index;
+        this.op = op;
+        this.id = id;
+        this.status = status;
+        this.error = error;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public StudentBatchOperation.Type getOp() {
+        return op;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public ErrorDetail getError() {
+        return error;
+    }
+}
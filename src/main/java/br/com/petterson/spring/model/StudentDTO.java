@@ -0,0 +1,44 @@
+package br.com.petterson.spring.model;
+
+import br.com.petterson.spring.repository.StudentVersionView;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Detached, immutable copy of a {@link Student} with the same JSON shape, built while the read
+ * transaction is still open so serialization never touches the persistence context.
+ */
+@JsonPropertyOrder({"id", "name", "email"})
+public class StudentDTO implements StudentVersionView {
+
+    private final Long id;
+    private final String name;
+    private final String email;
+    private final long version;
+
+    public StudentDTO(Student student) {
+        this.id = student.getId();
+        this.name = student.getName();
+        this.email = student.getEmail();
+        this.version = student.getVersion();
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    @Override
+    @JsonIgnore
+    public long getVersion() {
+        return version;
+    }
+}
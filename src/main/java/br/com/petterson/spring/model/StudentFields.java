@@ -0,0 +1,90 @@
+package br.com.petterson.spring.model;
+
+import br.com.petterson.spring.error.InvalidRequestException;
+import br.com.petterson.spring.repository.StudentVersionView;
+import com.fasterxml.jackson.annotation.JsonValue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.persistence.Tuple;
+
+/**
+ * The requested subset of a student's JSON fields, read as a column projection. Serializes as
+ * the selected fields only; the id and version are always read so the response can be tagged.
+ */
+public class StudentFields implements StudentVersionView {
+
+    public static final String ID = "id";
+    public static final String VERSION = "version";
+    private static final Set<String> SELECTABLE =
+        new LinkedHashSet<>(Arrays.asList(ID, "name", "email"));
+
+    private final Map<String, Object> values;
+    private final Long id;
+    private final long version;
+
+    public StudentFields(Map<String, Object> values, Long id, long version) {
+        this.values = values;
+        this.id = id;
+        this.version = version;
+    }
+
+    /**
+     * Returns the fields of a {@code fields=} parameter in request order, or {@code null} when
+     * the parameter is absent and the whole student is wanted.
+     */
+    public static List<String> parse(String fields) {
+        if (fields == null) {
+            return null;
+        }
+        Set<String> parsed = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            field = field.trim();
+            if (!SELECTABLE.contains(field)) {
+                throw new InvalidRequestException("Unknown student field: '" + field
+                    + "'. Selectable fields are " + SELECTABLE);
+            }
+            parsed.add(field);
+        }
+        return Collections.unmodifiableList(new ArrayList<>(parsed));
+    }
+
+    /**
+     * The attributes to select for these fields: the fields themselves plus the id and version.
+     */
+    public static List<String> attributes(List<String> fields) {
+        Set<String> attributes = new LinkedHashSet<>(fields);
+        attributes.add(ID);
+        attributes.add(VERSION);
+        return new ArrayList<>(attributes);
+    }
+
+    /**
+     * Builds the fields from a row selected with {@link #attributes(List)} as aliases.
+     */
+    public static StudentFields of(List<String> fields, Tuple row) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        fields.forEach(field -> values.put(field, row.get(field)));
+        return new StudentFields(values, row.get(ID, Long.class), row.get(VERSION, Long.class));
+    }
+
+    @JsonValue
+    public Map<String, Object> getValues() {
+        return values;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,22 @@
+package br.com.petterson.spring.model;
+
+import br.com.petterson.spring.error.ErrorDetail;
+
+public class StudentImportReject {
+
+    private final long row;
+    private final ErrorDetail error;
+
+    public StudentImportReject(long row, ErrorDetail error) {
+        this.row = row;
+        this.error = error;
+    }
+
+    public long getRow() {
+        return row;
+    }
+
+    public ErrorDetail getError() {
+        return error;
+    }
+}
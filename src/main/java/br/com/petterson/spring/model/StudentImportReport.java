@@ -0,0 +1,61 @@
+package br.com.petterson.spring.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class StudentImportReport {
+
+    private final int maxRejects;
+    private final List<StudentImportReject> rejects = new ArrayList<>();
+    private long rows;
+    private long imported;
+    private long rejected;
+    private boolean completed;
+
+    public StudentImportReport(int maxRejects) {
+        this.maxRejects = maxRejects;
+    }
+
+    public void imported(long students) {
+        rows += students;
+        imported += students;
+    }
+
+    public void rejected(StudentImportReject reject) {
+        rows++;
+        rejected++;
+        if (rejects.size() < maxRejects) {
+            rejects.add(reject);
+        }
+    }
+
+    public void completed() {
+        completed = true;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * The first rejects only; {@link #getRejected()} has the total.
+     */
+    public List<StudentImportReject> getRejects() {
+        return rejects;
+    }
+
+    /**
+     * False when the payload could not be read to the end.
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+}
@@ -1,11 +1,19 @@
 package br.com.petterson.spring.model;
 
+import br.com.petterson.spring.listener.UserEstudosListener;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.validation.constraints.NotEmpty;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@EntityListeners(UserEstudosListener.class)
 public class UserEstudos extends AbstractEntity {
 
     @NotEmpty
@@ -17,6 +25,8 @@ public class UserEstudos extends AbstractEntity {
     private String name;
     @NotEmpty
     private boolean admin;
+    @JsonIgnore
+    private long epoch;
 
     public String getUsername() {
         return username;
@@ -47,6 +57,17 @@ public class UserEstudos extends AbstractEntity {
     }
 
     public void setAdmin(boolean admin) {
+        if (this.admin != admin) {
+            epoch++;
+        }
         this.admin = admin;
     }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public void setEpoch(long epoch) {
+        this.epoch = epoch;
+    }
 }
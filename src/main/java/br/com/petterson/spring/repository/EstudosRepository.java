@@ -1,9 +1,19 @@
 package br.com.petterson.spring.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 import br.com.petterson.spring.model.UserEstudos;
+import javax.persistence.QueryHint;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
 public interface EstudosRepository extends PagingAndSortingRepository<UserEstudos, Long> {
 
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     UserEstudos findByUsername(String username);
+
+    @Query("select u.epoch from UserEstudos u where u.username = :username")
+    Long findEpochByUsername(@Param("username") String username);
 }
@@ -0,0 +1,8 @@
+package br.com.petterson.spring.repository;
+
+public interface StudentNameView {
+
+    Long getId();
+
+    String getName();
+}
@@ -1,10 +1,66 @@
 package br.com.petterson.spring.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 import br.com.petterson.spring.model.Student;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
-public interface StudentRepository extends PagingAndSortingRepository<Student, Long> {
+public interface StudentRepository extends PagingAndSortingRepository<Student, Long>,
+    StudentRepositoryCustom {
 
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<Student> findByNameIgnoreCaseContaining(String name);
+
+    Slice<Student> findAllBy(Pageable pageable);
+
+    Slice<StudentVersionView> findVersionsBy(Pageable pageable);
+
+    @Query("select s.version from Student s where s.id = :id")
+    Long findVersionById(@Param("id") Long id);
+
+    /**
+     * Reads the row rather than the second-level cache entry, which can lag behind writes made on
+     * another node, so an update checks the version its UPDATE will be compared against.
+     */
+    @Query("select s from Student s where s.id = :id")
+    Optional<Student> findCurrentById(@Param("id") Long id);
+
+    Slice<Student> findByNameNormalizedStartingWith(String prefix, Pageable pageable);
+
+    List<Student> findTop500ByNameNormalizedIsNullAndNameIsNotNull();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select s.id as id, s.name as name from Student s")
+    Stream<StudentNameView> streamAllNames();
+
+    // a full export must not push every row through the size-bounded L2 region
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HINT_READONLY, value = "true"),
+        @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")})
+    @Query("select s from Student s where s.id > :afterId order by s.id")
+    Stream<Student> streamAfterId(@Param("afterId") long afterId);
+
+    List<Student> findAllByOrderByIdAsc(Pageable pageable);
+
+    List<Student> findAllByOrderByNameAscIdAsc(Pageable pageable);
+
+    @Query("select s from Student s where s.id > :id order by s.id")
+    List<Student> findNextById(@Param("id") Long id, Pageable pageable);
+
+    @Query("select s from Student s where s.name > :name or (s.name = :name and s.id > :id)"
+        + " order by s.name, s.id")
+    List<Student> findNextByName(@Param("name") String name, @Param("id") Long id,
+        Pageable pageable);
 }
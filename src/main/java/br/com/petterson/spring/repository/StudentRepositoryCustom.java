@@ -0,0 +1,26 @@
+package br.com.petterson.spring.repository;
+
+import java.util.Collection;
+import java.util.List;
+import javax.persistence.Tuple;
+import org.springframework.data.domain.Pageable;
+
+public interface StudentRepositoryCustom {
+
+    /**
+     * Deletes the students with these ids in a few statements and a single transaction, so
+     * either all of them are deleted or none. The students are not loaded, so entity listeners do
+     * not run, and Hibernate evicts the whole students cache region.
+     */
+    int deleteAllByIdIn(List<Long> ids);
+
+    /**
+     * Selects only the given attributes, each aliased by its name, of the students in a page.
+     * One row more than the page size is read so the caller can tell whether a next page exists.
+     */
+    List<Tuple> findAttributesBy(List<String> attributes, Pageable pageable);
+
+    List<Tuple> findAttributesByIdIn(List<String> attributes, Collection<Long> ids);
+
+    List<Tuple> findAttributesByNameContaining(List<String> attributes, String name);
+}
@@ -0,0 +1,91 @@
+package br.com.petterson.spring.repository;
+
+import br.com.petterson.spring.model.Student;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+public class StudentRepositoryCustomImpl implements StudentRepositoryCustom {
+
+    // keeps the IN list well below the prepared statement placeholder limit
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int deleteAllByIdIn(List<Long> ids) {
+        int deleted = 0;
+        for (int from = 0; from < ids.size(); from += DELETE_CHUNK_SIZE) {
+            deleted += entityManager.createQuery("delete from Student s where s.id in :ids")
+                .setParameter("ids", ids.subList(from, Math.min(from + DELETE_CHUNK_SIZE,
+                    ids.size())))
+                .executeUpdate();
+        }
+        // like @Modifying(clearAutomatically = true): drop entities the DELETE made stale
+        entityManager.clear();
+        return deleted;
+    }
+
+    @Override
+    public List<Tuple> findAttributesBy(List<String> attributes, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Student> student = select(query, attributes);
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), student, cb));
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize() + 1);
+        }
+        return typedQuery.getResultList();
+    }
+
+    @Override
+    public List<Tuple> findAttributesByIdIn(List<String> attributes, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        CriteriaQuery<Tuple> query = entityManager.getCriteriaBuilder().createTupleQuery();
+        Root<Student> student = select(query, attributes);
+        query.where(student.get("id").in(ids));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public List<Tuple> findAttributesByNameContaining(List<String> attributes, String name) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Student> student = select(query, attributes);
+        // same predicate as findByNameIgnoreCaseContaining
+        ParameterExpression<String> pattern = cb.parameter(String.class);
+        query.where(cb.like(cb.upper(student.get("name")), cb.upper(pattern),
+            EscapeCharacter.DEFAULT.getEscapeCharacter()));
+        return entityManager.createQuery(query)
+            .setParameter(pattern, "%" + EscapeCharacter.DEFAULT.escape(name) + "%")
+            .getResultList();
+    }
+
+    private static Root<Student> select(CriteriaQuery<Tuple> query, List<String> attributes) {
+        Root<Student> student = query.from(Student.class);
+        List<Selection<?>> selections = new ArrayList<>(attributes.size());
+        attributes.forEach(attribute -> selections.add(student.get(attribute).alias(attribute)));
+        query.multiselect(selections);
+        return student;
+    }
+}
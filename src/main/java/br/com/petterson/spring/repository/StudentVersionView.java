@@ -0,0 +1,8 @@
+package br.com.petterson.spring.repository;
+
+public interface StudentVersionView {
+
+    Long getId();
+
+    long getVersion();
+}
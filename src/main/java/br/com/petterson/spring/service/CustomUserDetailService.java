@@ -2,37 +2,95 @@ package br.com.petterson.spring.service;
 
 import br.com.petterson.spring.model.UserEstudos;
 import br.com.petterson.spring.repository.EstudosRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.AuthorityUtils;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 
 @Component
-public class CustomUserDetailService implements UserDetailsService {
+public class CustomUserDetailService implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final List<GrantedAuthority> AUTHORITY_LIST_ADMIN = Collections
+        .unmodifiableList(AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN"));
+    private static final List<GrantedAuthority> AUTHORITY_LIST_USER = Collections
+        .unmodifiableList(AuthorityUtils.createAuthorityList("ROLE_USER"));
 
     private final EstudosRepository estudosRepository;
+    private final PasswordUpgradeWriter passwordUpgradeWriter;
+    private final LoadingCache<String, CachedUser> users;
 
     @Autowired
     public CustomUserDetailService(
-        EstudosRepository estudosRepository) {
+        EstudosRepository estudosRepository,
+        PasswordUpgradeWriter passwordUpgradeWriter,
+        MeterRegistry meterRegistry,
+        @Value("${security.user-cache.maximum-size:10000}") long maximumSize,
+        @Value("${security.user-cache.ttl-seconds:300}") long ttlSeconds) {
         this.estudosRepository = estudosRepository;
+        this.passwordUpgradeWriter = passwordUpgradeWriter;
+        this.users = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+            .recordStats()
+            .build(this::loadUser);
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "userDetails");
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        UserEstudos user = Optional.ofNullable(estudosRepository.findByUsername(username))
+        CachedUser user = Optional.ofNullable(users.get(username))
             .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        List<GrantedAuthority> authorityListAdmin = AuthorityUtils
-            .createAuthorityList("ROLE_USER", "ROLE_ADMIN");
-        List<GrantedAuthority> authorityListUser = AuthorityUtils.createAuthorityList("ROLE_USER");
 
-        return new User(user.getUsername(), user.getPassword(),
-            user.isAdmin() ? authorityListAdmin : authorityListUser);
+        return new EstudosUserDetails(user.username, user.password, user.authorities, user.epoch);
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        passwordUpgradeWriter.write(user.getUsername(), newPassword);
+        long epoch = user instanceof EstudosUserDetails
+            ? ((EstudosUserDetails) user).getEpoch() : 0L;
+        return new EstudosUserDetails(user.getUsername(), newPassword, user.getAuthorities(),
+            epoch);
+    }
+
+    public void evict(String username) {
+        users.invalidate(username);
+    }
+
+    private CachedUser loadUser(String username) {
+        UserEstudos user = estudosRepository.findByUsername(username);
+        return user != null ? new CachedUser(user) : null;
+    }
+
+    /*
+     * Spring Security erases the password of the UserDetails handed out after a successful
+     * authentication, so the cache keeps its own immutable copy and builds a new UserDetails per call.
+     */
+    private static final class CachedUser {
+
+        private final String username;
+        private final String password;
+        private final List<GrantedAuthority> authorities;
+        private final long epoch;
+
+        private CachedUser(UserEstudos user) {
+            this.username = user.getUsername();
+            this.password = user.getPassword();
+            this.authorities = user.isAdmin() ? AUTHORITY_LIST_ADMIN : AUTHORITY_LIST_USER;
+            this.epoch = user.getEpoch();
+        }
     }
 }
@@ -0,0 +1,20 @@
+package br.com.petterson.spring.service;
+
+import java.util.Collection;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+public class EstudosUserDetails extends User {
+
+    private final long epoch;
+
+    public EstudosUserDetails(String username, String password,
+        Collection<? extends GrantedAuthority> authorities, long epoch) {
+        super(username, password, authorities);
+        this.epoch = epoch;
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+}
@@ -0,0 +1,35 @@
+package br.com.petterson.spring.service;
+
+import br.com.petterson.spring.model.UserEstudos;
+import br.com.petterson.spring.repository.EstudosRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+public class PasswordUpgradeWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordUpgradeWriter.class);
+
+    private final EstudosRepository estudosRepository;
+
+    @Autowired
+    public PasswordUpgradeWriter(EstudosRepository estudosRepository) {
+        this.estudosRepository = estudosRepository;
+    }
+
+    @Async
+    @Transactional
+    public void write(String username, String encodedPassword) {
+        UserEstudos user = estudosRepository.findByUsername(username);
+        if (user == null) {
+            return;
+        }
+        user.setPassword(encodedPassword);
+        estudosRepository.save(user);
+        log.debug("Re-encoded password of {}", username);
+    }
+}
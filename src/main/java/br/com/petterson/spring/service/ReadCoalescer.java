@@ -0,0 +1,120 @@
+package br.com.petterson.spring.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lets concurrent callers asking for the same read share a single query. The first caller runs
+ * it; the others wait up to {@code max-wait-millis} for its result and run the query themselves
+ * if it takes longer. A key is forgotten as soon as its query finishes, so nothing is served
+ * after completion and no result can go stale.
+ *
+ * <p>Joined callers receive the same instances as the first caller, so results must not be
+ * modified by the caller.
+ */
+@Component
+public class ReadCoalescer {
+
+    private final Map<List<Object>, CompletableFuture<Object>> inFlight =
+        new ConcurrentHashMap<>();
+    // registered on the first read of an operation, so later reads only look them up
+    private final Map<String, OperationCounters> counters = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final long maxWaitMillis;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public ReadCoalescer(MeterRegistry meterRegistry,
+        @Value("${students.coalescing.enabled:true}") boolean enabled,
+        @Value("${students.coalescing.max-wait-millis:1000}") long maxWaitMillis) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T read(String operation, Object key, Supplier<T> query) {
+        if (!enabled) {
+            return query.get();
+        }
+        OperationCounters operationCounters = counters(operation);
+        List<Object> flightKey = Arrays.asList(operation, key);
+        CompletableFuture<Object> ours = new CompletableFuture<>();
+        CompletableFuture<Object> theirs = inFlight.putIfAbsent(flightKey, ours);
+        if (theirs == null) {
+            operationCounters.leader.increment();
+            try {
+                T result = query.get();
+                inFlight.remove(flightKey, ours);
+                ours.complete(result);
+                return result;
+            } catch (RuntimeException | Error e) {
+                inFlight.remove(flightKey, ours);
+                ours.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        operationCounters.joined.increment();
+        try {
+            return (T) theirs.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            operationCounters.timeout.increment();
+            return query.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + operation, e);
+        }
+    }
+
+    private OperationCounters counters(String operation) {
+        OperationCounters operationCounters = counters.get(operation);
+        if (operationCounters == null) {
+            operationCounters = counters.computeIfAbsent(operation, OperationCounters::new);
+        }
+        return operationCounters;
+    }
+
+    private class OperationCounters {
+
+        private final Counter leader;
+        private final Counter joined;
+        private final Counter timeout;
+
+        OperationCounters(String operation) {
+            this.leader = counter(operation, "leader");
+            this.joined = counter(operation, "joined");
+            this.timeout = counter(operation, "timeout");
+        }
+
+        private Counter counter(String operation, String outcome) {
+            return Counter.builder("students.reads.coalescing")
+                .description("Reads that ran their own query (leader) or waited for one "
+                    + "already in flight (joined); joined reads that gave up waiting also count "
+                    + "as timeout")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package br.com.petterson.spring.service;
+
+import br.com.petterson.spring.error.ErrorDetail;
+import br.com.petterson.spring.error.ValidationErrorDetails;
+import br.com.petterson.spring.model.Student;
+import br.com.petterson.spring.model.StudentBatchOperation;
+import br.com.petterson.spring.model.StudentBatchOperation.Type;
+import br.com.petterson.spring.model.StudentBatchResult;
+import br.com.petterson.spring.repository.StudentRepository;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Applies a list of student creates, updates and deletes in chunks, one transaction per chunk, so
+ * Hibernate can send each chunk's statements as JDBC batches.
+ */
+@Component
+public class StudentBatchService {
+
+    private final StudentRepository studentRepository;
+    private final StudentCountCache studentCountCache;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public StudentBatchService(StudentRepository studentRepository,
+        StudentCountCache studentCountCache, Validator validator,
+        PlatformTransactionManager transactionManager,
+        @Value("${students.batch.chunk-size:500}") int chunkSize) {
+        this.studentRepository = studentRepository;
+        this.studentCountCache = studentCountCache;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public List<StudentBatchResult> apply(List<StudentBatchOperation> operations) {
+        List<StudentBatchResult> results = new ArrayList<>(operations.size());
+        for (int from = 0; from < operations.size(); from += chunkSize) {
+            int offset = from;
+            List<StudentBatchOperation> chunk = operations
+                .subList(from, Math.min(from + chunkSize, operations.size()));
+            try {
+                List<StudentBatchResult> chunkResults =
+                    transactionTemplate.execute(status -> applyChunk(chunk, offset));
+                results.addAll(chunkResults);
+                // only once committed, as a rolled back chunk changed nothing
+                studentCountCache.added(count(chunkResults, Type.CREATE, HttpStatus.CREATED));
+                studentCountCache.removed(count(chunkResults, Type.DELETE, HttpStatus.OK));
+            } catch (DataAccessException | PersistenceException | TransactionException e) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    StudentBatchOperation operation = chunk.get(i);
+                    results.add(new StudentBatchResult(offset + i, operation.getOp(),
+                        operation.getId(), HttpStatus.CONFLICT.value(), chunkError(e)));
+                }
+            }
+        }
+        return results;
+    }
+
+    private List<StudentBatchResult> applyChunk(List<StudentBatchOperation> chunk, int offset) {
+        Set<Long> existingIds = chunk.stream()
+            .filter(operation -> operation.getOp() != Type.CREATE && operation.getId() != null)
+            .map(StudentBatchOperation::getId)
+            .collect(Collectors.toSet());
+        Map<Long, Student> existing = new HashMap<>();
+        studentRepository.findAllById(existingIds)
+            .forEach(student -> existing.put(student.getId(), student));
+
+        List<StudentBatchResult> results = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            StudentBatchOperation operation = chunk.get(i);
+            int index = offset + i;
+            if (operation.getOp() == null) {
+                results.add(failure(index, operation, HttpStatus.BAD_REQUEST, "Missing op"));
+                continue;
+            }
+            if (operation.getOp() != Type.CREATE && operation.getId() == null) {
+                results.add(failure(index, operation, HttpStatus.BAD_REQUEST, "Missing id"));
+                continue;
+            }
+            Student student = operation.getOp() == Type.CREATE ? null
+                : existing.get(operation.getId());
+            if (operation.getOp() != Type.CREATE && student == null) {
+                results.add(failure(index, operation, HttpStatus.NOT_FOUND,
+                    "Student not found for ID: " + operation.getId()));
+                continue;
+            }
+
+            switch (operation.getOp()) {
+                case CREATE:
+                case UPDATE:
+                    Student candidate = new Student(operation.getName(), operation.getEmail());
+                    Set<ConstraintViolation<Student>> violations = validator.validate(candidate);
+                    if (!violations.isEmpty()) {
+                        results.add(new StudentBatchResult(index, operation.getOp(),
+                            operation.getId(), HttpStatus.BAD_REQUEST.value(),
+                            validationError(violations)));
+                        continue;
+                    }
+                    if (operation.getOp() == Type.CREATE) {
+                        entityManager.persist(candidate);
+                        results.add(new StudentBatchResult(index, operation.getOp(),
+                            candidate.getId(), HttpStatus.CREATED.value(), null));
+                    } else {
+                        student.setName(candidate.getName());
+                        student.setEmail(candidate.getEmail());
+                        results.add(new StudentBatchResult(index, operation.getOp(),
+                            student.getId(), HttpStatus.OK.value(), null));
+                    }
+                    break;
+                case DELETE:
+                    entityManager.remove(student);
+                    existing.remove(operation.getId());
+                    results.add(new StudentBatchResult(index, operation.getOp(),
+                        operation.getId(), HttpStatus.OK.value(), null));
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        return results;
+    }
+
+    private static long count(List<StudentBatchResult> results, Type op, HttpStatus status) {
+        return results.stream()
+            .filter(result -> result.getOp() == op && result.getStatus() == status.value())
+            .count();
+    }
+
+    private static StudentBatchResult failure(int index, StudentBatchOperation operation,
+        HttpStatus status, String detail) {
+        ErrorDetail errorDetail = ErrorDetail.Builder
+            .newBuilder()
+            .timestamp(new Date().getTime())
+            .status(status.value())
+            .title(status.getReasonPhrase())
+            .detail(detail)
+            .build();
+        return new StudentBatchResult(index, operation.getOp(), operation.getId(), status.value(),
+            errorDetail);
+    }
+
+    static ValidationErrorDetails validationError(
+        Set<ConstraintViolation<Student>> violations) {
+        String fields = violations.stream().map(v -> v.getPropertyPath().toString())
+            .collect(Collectors.joining(","));
+        String fieldMessages = violations.stream().map(ConstraintViolation::getMessage)
+            .collect(Collectors.joining(","));
+        return ValidationErrorDetails.Builder
+            .newBuilder()
+            .timestamp(new Date().getTime())
+            .status(HttpStatus.BAD_REQUEST.value())
+            .title("Field Validation Error")
+            .detail("Field Validation Error")
+            .developerMessage(ConstraintViolationException.class.getName())
+            .field(fields)
+            .fieldMessage(fieldMessages)
+            .build();
+    }
+
+    static ErrorDetail chunkError(RuntimeException e) {
+        return ErrorDetail.Builder
+            .newBuilder()
+            .timestamp(new Date().getTime())
+            .status(HttpStatus.CONFLICT.value())
+            .title("Batch Chunk Rolled Back")
+            .detail(NestedExceptionUtils.getMostSpecificCause(e).getMessage())
+            .developerMessage(e.getClass().getName())
+            .build();
+    }
+}
@@ -0,0 +1,48 @@
+package br.com.petterson.spring.service;
+
+import br.com.petterson.spring.repository.StudentRepository;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Approximate number of students for paged listings that do not need an exact total. The value
+ * is recounted in the background and adjusted in between by the writes made through the API.
+ */
+@Component
+public class StudentCountCache {
+
+    private static final long UNKNOWN = -1L;
+
+    private final StudentRepository studentRepository;
+    private final AtomicLong count = new AtomicLong(UNKNOWN);
+
+    @Autowired
+    public StudentCountCache(StudentRepository studentRepository) {
+        this.studentRepository = studentRepository;
+    }
+
+    public long get() {
+        long current = count.get();
+        if (current == UNKNOWN) {
+            refresh();
+            current = count.get();
+        }
+        return current;
+    }
+
+    @Scheduled(fixedDelayString = "${students.count-cache.refresh-millis:60000}")
+    public void refresh() {
+        count.set(studentRepository.count());
+    }
+
+    public void added(long students) {
+        count.getAndUpdate(current -> current == UNKNOWN ? UNKNOWN : current + students);
+    }
+
+    public void removed(long students) {
+        count.getAndUpdate(
+            current -> current == UNKNOWN ? UNKNOWN : Math.max(current - students, 0));
+    }
+}
@@ -0,0 +1,90 @@
+package br.com.petterson.spring.service;
+
+import br.com.petterson.spring.model.Student;
+import br.com.petterson.spring.repository.StudentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Writes every student with an id greater than {@code afterId} to an output stream, in id order,
+ * straight from a forward-only database cursor. The persistence context is cleared every
+ * {@link #CLEAR_INTERVAL} rows so memory use does not grow with the table.
+ */
+@Component
+public class StudentExportService {
+
+    private static final int CLEAR_INTERVAL = 1000;
+
+    private final StudentRepository studentRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter ndjsonWriter;
+    private final ObjectWriter csvWriter;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public StudentExportService(StudentRepository studentRepository,
+        PlatformTransactionManager transactionManager, ObjectMapper objectMapper) {
+        this.studentRepository = studentRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.ndjsonWriter = objectMapper.writerFor(Student.class).withRootValueSeparator("\n");
+        CsvSchema schema = CsvSchema.builder()
+            .addColumn("id")
+            .addColumn("name")
+            .addColumn("email")
+            .build()
+            .withHeader();
+        this.csvWriter = new CsvMapper().writerFor(Student.class).with(schema);
+    }
+
+    /**
+     * Returns the number of students written. The last id written is the {@code afterId} that
+     * resumes an interrupted export.
+     */
+    public long export(StudentFileFormat format, long afterId, OutputStream out) {
+        ObjectWriter writer = format == StudentFileFormat.CSV ? csvWriter : ndjsonWriter;
+        return readOnlyTransaction.execute(status -> {
+            // the query's IGNORE cache mode only lasts until the stream is returned, while rows
+            // are loaded as it is consumed, so it is set on this transaction's session too
+            entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+            long written = 0;
+            try (Stream<Student> rows = studentRepository.streamAfterId(afterId);
+                SequenceWriter sequence = writer.writeValues(out)) {
+                Iterator<Student> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    sequence.write(iterator.next());
+                    if (++written % CLEAR_INTERVAL == 0) {
+                        entityManager.clear();
+                        sequence.flush();
+                    }
+                }
+                if (format == StudentFileFormat.NDJSON && written > 0) {
+                    // the root value separator only goes between rows
+                    sequence.flush();
+                    out.write('\n');
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return written;
+        });
+    }
+}
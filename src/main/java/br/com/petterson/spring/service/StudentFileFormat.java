@@ -0,0 +1,45 @@
+package br.com.petterson.spring.service;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+/**
+ * Formats accepted by the student export and import.
+ */
+public enum StudentFileFormat {
+    NDJSON("application/x-ndjson"), CSV("text/csv");
+
+    private final MediaType mediaType;
+
+    StudentFileFormat(String mediaType) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public static StudentFileFormat from(String value) {
+        for (StudentFileFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    public static StudentFileFormat fromContentType(String contentType) {
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        for (StudentFileFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(mediaType)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,178 @@
+package br.com.petterson.spring.service;
+
+import br.com.petterson.spring.error.ErrorDetail;
+import br.com.petterson.spring.model.Student;
+import br.com.petterson.spring.model.StudentImportReject;
+import br.com.petterson.spring.model.StudentImportReport;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Reads students from an NDJSON or CSV stream one row at a time and inserts the valid ones in
+ * chunks, one transaction per chunk. Only the current chunk and the first rejects are kept in
+ * memory, whatever the size of the payload.
+ */
+@Component
+public class StudentImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentImportService.class);
+    private static final int PROGRESS_INTERVAL = 100_000;
+
+    private final StudentCountCache studentCountCache;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader ndjsonReader;
+    private final ObjectReader csvReader;
+    private final int chunkSize;
+    private final int maxReportedRejects;
+    private final Counter importedCounter;
+    private final Counter rejectedCounter;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public StudentImportService(StudentCountCache studentCountCache, Validator validator,
+        PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+        MeterRegistry meterRegistry,
+        @Value("${students.import.chunk-size:1000}") int chunkSize,
+        @Value("${students.import.max-reported-rejects:1000}") int maxReportedRejects) {
+        this.studentCountCache = studentCountCache;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ndjsonReader = objectMapper.readerFor(Student.class);
+        this.csvReader = new CsvMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .readerFor(Student.class)
+            .with(CsvSchema.emptySchema().withHeader());
+        this.chunkSize = chunkSize;
+        this.maxReportedRejects = maxReportedRejects;
+        this.importedCounter = Counter.builder("students.import.rows")
+            .tag("outcome", "imported")
+            .description("Rows inserted by the student import")
+            .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("students.import.rows")
+            .tag("outcome", "rejected")
+            .description("Rows rejected by the student import")
+            .register(meterRegistry);
+    }
+
+    public StudentImportReport importStudents(StudentFileFormat format, InputStream in) {
+        StudentImportReport report = new StudentImportReport(maxReportedRejects);
+        ObjectReader reader = format == StudentFileFormat.CSV ? csvReader : ndjsonReader;
+        List<Student> chunk = new ArrayList<>(chunkSize);
+        long[] chunkRows = new long[chunkSize];
+        long row = 0;
+        try (MappingIterator<Student> rows = reader.readValues(in)) {
+            while (true) {
+                row++;
+                if (!rows.hasNextValue()) {
+                    break;
+                }
+                Student parsed;
+                try {
+                    parsed = rows.nextValue();
+                } catch (JsonMappingException e) {
+                    // the iterator skips the rest of the bad row on the next hasNextValue()
+                    reject(report, row, "Invalid Row", e);
+                    continue;
+                }
+                Student student = new Student(parsed.getName(), parsed.getEmail());
+                Set<ConstraintViolation<Student>> violations = validator.validate(student);
+                if (!violations.isEmpty()) {
+                    rejectedCounter.increment();
+                    report.rejected(new StudentImportReject(row,
+                        StudentBatchService.validationError(violations)));
+                    continue;
+                }
+                chunkRows[chunk.size()] = row;
+                chunk.add(student);
+                if (chunk.size() == chunkSize) {
+                    insert(chunk, chunkRows, report);
+                }
+            }
+            insert(chunk, chunkRows, report);
+            report.completed();
+        } catch (IOException e) {
+            // malformed input: there is no way to find the start of the next row
+            insert(chunk, chunkRows, report);
+            reject(report, row, "Unreadable Payload", e);
+        }
+        log.info("Student import finished: {} rows, {} imported, {} rejected", report.getRows(),
+            report.getImported(), report.getRejected());
+        return report;
+    }
+
+    private void insert(List<Student> chunk, long[] chunkRows, StudentImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.execute(status -> {
+                chunk.forEach(entityManager::persist);
+                entityManager.flush();
+                entityManager.clear();
+                return null;
+            });
+            report.imported(chunk.size());
+            importedCounter.increment(chunk.size());
+            studentCountCache.added(chunk.size());
+        } catch (DataAccessException | PersistenceException | TransactionException e) {
+            ErrorDetail error = StudentBatchService.chunkError(e);
+            for (int i = 0; i < chunk.size(); i++) {
+                report.rejected(new StudentImportReject(chunkRows[i], error));
+            }
+            rejectedCounter.increment(chunk.size());
+        }
+        long rowsBefore = report.getRows() - chunk.size();
+        if (report.getRows() / PROGRESS_INTERVAL > rowsBefore / PROGRESS_INTERVAL) {
+            log.info("Student import progress: {} rows, {} imported, {} rejected",
+                report.getRows(), report.getImported(), report.getRejected());
+        }
+        chunk.clear();
+    }
+
+    private void reject(StudentImportReport report, long row, String title, IOException e) {
+        String detail = e instanceof JsonProcessingException
+            ? ((JsonProcessingException) e).getOriginalMessage() : e.getMessage();
+        ErrorDetail error = ErrorDetail.Builder
+            .newBuilder()
+            .timestamp(new Date().getTime())
+            .status(HttpStatus.BAD_REQUEST.value())
+            .title(title)
+            .detail(detail)
+            .developerMessage(e.getClass().getName())
+            .build();
+        rejectedCounter.increment();
+        report.rejected(new StudentImportReject(row, error));
+    }
+}
@@ -0,0 +1,234 @@
+package br.com.petterson.spring.service;
+
+import br.com.petterson.spring.repository.StudentNameView;
+import br.com.petterson.spring.repository.StudentRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * In-process trigram index over {@code Student.name}. A substring query is resolved by
+ * intersecting the posting lists of its trigrams and checking the surviving candidates against
+ * the indexed names, so the database is only asked for the matching ids.
+ */
+@Component
+public class StudentNameIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentNameIndex.class);
+    private static final int GRAM = 3;
+    // rough per-entry cost of a boxed Long inside a ConcurrentHashMap-backed set or map
+    private static final long BYTES_PER_POSTING = 56L;
+    private static final long BYTES_PER_NAME = 88L;
+
+    private final StudentRepository studentRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final Map<Long, String> names = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final Set<Long> removedDuringBuild = ConcurrentHashMap.newKeySet();
+    private final AtomicLong postingCount = new AtomicLong();
+    private final AtomicLong nameChars = new AtomicLong();
+    private final AtomicLong buildMillis = new AtomicLong();
+    private final Timer searchTimer;
+    private volatile boolean building;
+    private volatile boolean ready;
+
+    @Autowired
+    public StudentNameIndex(StudentRepository studentRepository,
+        PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+        @Value("${students.name-index.enabled:false}") boolean enabled) {
+        this.studentRepository = studentRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.searchTimer = Timer.builder("students.name.index.search")
+            .description("Time to resolve a name search through the trigram index")
+            .register(meterRegistry);
+        Gauge.builder("students.name.index.size", names, Map::size)
+            .description("Students held by the trigram index")
+            .register(meterRegistry);
+        Gauge.builder("students.name.index.memory", this, StudentNameIndex::estimatedBytes)
+            .description("Estimated heap used by the trigram index")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("students.name.index.build", buildMillis, AtomicLong::get)
+            .description("Time taken by the last full build of the trigram index")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Whether {@link #search(String)} can answer this term. A term shorter than a trigram has no
+     * posting list to narrow it down, and could match nearly every id, so the caller should use
+     * the database instead.
+     */
+    public boolean canSearch(String term) {
+        return isReady() && normalize(term).length() >= GRAM;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        building = true;
+        readOnlyTransaction.execute(status -> {
+            try (Stream<StudentNameView> rows = studentRepository.streamAllNames()) {
+                rows.forEach(row -> {
+                    if (!removedDuringBuild.contains(row.getId())) {
+                        add(row.getId(), row.getName(), false);
+                    }
+                });
+            }
+            return null;
+        });
+        building = false;
+        removedDuringBuild.clear();
+        ready = true;
+        buildMillis.set(System.currentTimeMillis() - start);
+        log.info("Indexed {} student names ({} trigram postings, ~{} KB) in {} ms",
+            names.size(), postingCount.get(), estimatedBytes() / 1024, buildMillis.get());
+    }
+
+    public void index(Long id, String name) {
+        if (enabled && id != null) {
+            add(id, name, true);
+        }
+    }
+
+    public void remove(Long id) {
+        if (!enabled || id == null) {
+            return;
+        }
+        if (building) {
+            removedDuringBuild.add(id);
+        }
+        String previous = names.remove(id);
+        if (previous != null) {
+            unlink(id, previous);
+        }
+    }
+
+    /**
+     * Returns the ids of the students whose name contains {@code term}, ignoring case. The term
+     * must be at least a trigram long, see {@link #canSearch(String)}.
+     */
+    public List<Long> search(String term) {
+        String needle = normalize(term);
+        if (needle.length() < GRAM) {
+            throw new IllegalArgumentException("Search term is shorter than a trigram: " + term);
+        }
+        long start = System.nanoTime();
+        try {
+            List<Set<Long>> lists = new ArrayList<>();
+            for (String gram : trigrams(needle)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null) {
+                    return Collections.emptyList();
+                }
+                lists.add(ids);
+            }
+            lists.sort(Comparator.comparingInt(Set::size));
+            List<Long> result = new ArrayList<>();
+            for (Long id : lists.get(0)) {
+                if (containsAll(lists, id)) {
+                    String name = names.get(id);
+                    if (name != null && name.contains(needle)) {
+                        result.add(id);
+                    }
+                }
+            }
+            return result;
+        } finally {
+            searchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void add(Long id, String name, boolean replace) {
+        if (name == null) {
+            return;
+        }
+        String normalized = normalize(name);
+        String previous = replace ? names.put(id, normalized) : names.putIfAbsent(id, normalized);
+        if (!replace && previous != null) {
+            return;
+        }
+        if (previous != null) {
+            if (previous.equals(normalized)) {
+                return;
+            }
+            unlink(id, previous);
+        }
+        nameChars.addAndGet(normalized.length());
+        for (String gram : trigrams(normalized)) {
+            if (postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(id)) {
+                postingCount.incrementAndGet();
+            }
+        }
+    }
+
+    private void unlink(Long id, String name) {
+        nameChars.addAndGet(-name.length());
+        for (String gram : trigrams(name)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null && ids.remove(id)) {
+                postingCount.decrementAndGet();
+            }
+        }
+    }
+
+    private static boolean containsAll(List<Set<Long>> lists, Long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<String> trigrams(String value) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private long estimatedBytes() {
+        return postingCount.get() * BYTES_PER_POSTING
+            + names.size() * BYTES_PER_NAME
+            + nameChars.get() * 2;
+    }
+}
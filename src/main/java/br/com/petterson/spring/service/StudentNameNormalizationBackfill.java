@@ -0,0 +1,59 @@
+package br.com.petterson.spring.service;
+
+import br.com.petterson.spring.model.Student;
+import br.com.petterson.spring.repository.StudentRepository;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Fills {@code name_normalized} for rows written before the column existed, a chunk per
+ * transaction. Only runs with {@code students.name-backfill.enabled}, which is meant to be set on
+ * a single node for one start after the upgrade, so nodes do not rescan the table on every start
+ * or race on the same rows.
+ */
+@Component
+@ConditionalOnProperty(name = "students.name-backfill.enabled", havingValue = "true")
+public class StudentNameNormalizationBackfill {
+
+    private static final Logger log = LoggerFactory
+        .getLogger(StudentNameNormalizationBackfill.class);
+
+    private final StudentRepository studentRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public StudentNameNormalizationBackfill(StudentRepository studentRepository,
+        PlatformTransactionManager transactionManager) {
+        this.studentRepository = studentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long total = 0;
+        Integer updated;
+        do {
+            updated = transactionTemplate.execute(status -> {
+                List<Student> students = studentRepository
+                    .findTop500ByNameNormalizedIsNullAndNameIsNotNull();
+                students.forEach(Student::normalizeName);
+                studentRepository.saveAll(students);
+                return students.size();
+            });
+            total += updated != null ? updated : 0;
+        } while (updated != null && updated > 0);
+        if (total > 0) {
+            log.info("Normalized the name of {} students", total);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package br.com.petterson.spring.service;
+
+import br.com.petterson.spring.model.Student;
+import br.com.petterson.spring.model.StudentDTO;
+import br.com.petterson.spring.model.StudentFields;
+import br.com.petterson.spring.repository.StudentRepository;
+import br.com.petterson.spring.repository.StudentVersionView;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import javax.persistence.Tuple;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Read paths of the student API. Each method is one read-only transaction, so Hibernate runs
+ * with flush mode MANUAL and skips dirty checking, and returns DTOs so the connection is back in
+ * the pool before the response is serialized.
+ */
+@Component
+@Transactional(readOnly = true)
+public class StudentQueryService {
+
+    // keeps the IN list of an index lookup well below the prepared statement placeholder limit
+    private static final int IDS_PER_QUERY = 1000;
+
+    private final StudentRepository studentRepository;
+    private final StudentNameIndex studentNameIndex;
+
+    @Autowired
+    public StudentQueryService(StudentRepository studentRepository,
+        StudentNameIndex studentNameIndex) {
+        this.studentRepository = studentRepository;
+        this.studentNameIndex = studentNameIndex;
+    }
+
+    public Optional<StudentDTO> findById(Long id) {
+        return studentRepository.findById(id).map(StudentDTO::new);
+    }
+
+    public Long findVersionById(Long id) {
+        return studentRepository.findVersionById(id);
+    }
+
+    public List<StudentDTO> findAllById(Collection<Long> ids) {
+        return toDTOs(studentRepository.findAllById(ids));
+    }
+
+    public Page<StudentDTO> findPage(Pageable pageable) {
+        return studentRepository.findAll(pageable).map(StudentDTO::new);
+    }
+
+    public Slice<StudentDTO> findSlice(Pageable pageable) {
+        return studentRepository.findAllBy(pageable).map(StudentDTO::new);
+    }
+
+    public Slice<StudentVersionView> findVersions(Pageable pageable) {
+        return studentRepository.findVersionsBy(pageable);
+    }
+
+    public long count() {
+        return studentRepository.count();
+    }
+
+    public List<StudentDTO> findByName(String name) {
+        if (studentNameIndex.canSearch(name)) {
+            return inChunks(studentNameIndex.search(name),
+                ids -> toDTOs(studentRepository.findAllById(ids)));
+        }
+        return toDTOs(studentRepository.findByNameIgnoreCaseContaining(name));
+    }
+
+    public Slice<StudentDTO> searchByNormalizedPrefix(String normalizedPrefix,
+        Pageable pageable) {
+        return studentRepository.findByNameNormalizedStartingWith(normalizedPrefix, pageable)
+            .map(StudentDTO::new);
+    }
+
+    public List<StudentDTO> findFirstById(Pageable limit) {
+        return toDTOs(studentRepository.findAllByOrderByIdAsc(limit));
+    }
+
+    public List<StudentDTO> findFirstByName(Pageable limit) {
+        return toDTOs(studentRepository.findAllByOrderByNameAscIdAsc(limit));
+    }
+
+    public List<StudentDTO> findNextById(Long id, Pageable limit) {
+        return toDTOs(studentRepository.findNextById(id, limit));
+    }
+
+    public List<StudentDTO> findNextByName(String name, Long id, Pageable limit) {
+        return toDTOs(studentRepository.findNextByName(name, id, limit));
+    }
+
+    /**
+     * Like {@link #findSlice(Pageable)}, selecting only the columns of the given fields.
+     */
+    public Slice<StudentFields> findFieldsSlice(List<String> fields, Pageable pageable) {
+        List<Tuple> rows = studentRepository
+            .findAttributesBy(StudentFields.attributes(fields), pageable);
+        boolean hasNext = pageable.isPaged() && rows.size() > pageable.getPageSize();
+        if (hasNext) {
+            rows = rows.subList(0, pageable.getPageSize());
+        }
+        return new SliceImpl<>(toFields(fields, rows), pageable, hasNext);
+    }
+
+    public Page<StudentFields> findFieldsPage(List<String> fields, Pageable pageable) {
+        return PageableExecutionUtils.getPage(findFieldsSlice(fields, pageable).getContent(),
+            pageable, studentRepository::count);
+    }
+
+    public Optional<StudentFields> findFieldsById(List<String> fields, Long id) {
+        return toFields(fields, studentRepository.findAttributesByIdIn(
+            StudentFields.attributes(fields), Collections.singletonList(id))).stream().findFirst();
+    }
+
+    public List<StudentFields> findFieldsByName(List<String> fields, String name) {
+        List<String> attributes = StudentFields.attributes(fields);
+        if (studentNameIndex.canSearch(name)) {
+            return inChunks(studentNameIndex.search(name),
+                ids -> toFields(fields, studentRepository.findAttributesByIdIn(attributes, ids)));
+        }
+        return toFields(fields,
+            studentRepository.findAttributesByNameContaining(attributes, name));
+    }
+
+    private static <T> List<T> inChunks(List<Long> ids, Function<List<Long>, List<T>> query) {
+        List<T> rows = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += IDS_PER_QUERY) {
+            rows.addAll(query.apply(ids.subList(from, Math.min(from + IDS_PER_QUERY, ids.size()))));
+        }
+        return rows;
+    }
+
+    private static List<StudentFields> toFields(List<String> fields, List<Tuple> rows) {
+        List<StudentFields> content = new ArrayList<>(rows.size());
+        rows.forEach(row -> content.add(StudentFields.of(fields, row)));
+        return content;
+    }
+
+    private static List<StudentDTO> toDTOs(Iterable<Student> students) {
+        List<StudentDTO> dtos = new ArrayList<>();
+        students.forEach(student -> dtos.add(new StudentDTO(student)));
+        return dtos;
+    }
+}
@@ -0,0 +1,82 @@
+package br.com.petterson.spring.service;
+
+import br.com.petterson.spring.error.InvalidRequestException;
+import br.com.petterson.spring.error.PreconditionFailedException;
+import br.com.petterson.spring.model.Student;
+import br.com.petterson.spring.repository.StudentRepository;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Applies student changes to the loaded entity, which dirty checking then writes as
+ * {@code update ... where id=? and version=?}. Unlike a bulk UPDATE this only replaces the
+ * student's own entry in the second-level cache, and runs the entity callbacks and listeners.
+ */
+@Component
+public class StudentUpdateService {
+
+    private static final String NAME = "name";
+    private static final String EMAIL = "email";
+    private static final Set<String> UPDATABLE = new HashSet<>(Arrays.asList(NAME, EMAIL));
+
+    private final StudentRepository studentRepository;
+    private final Validator validator;
+
+    @Autowired
+    public StudentUpdateService(StudentRepository studentRepository, Validator validator) {
+        this.studentRepository = studentRepository;
+        this.validator = validator;
+    }
+
+    /**
+     * Returns the updated student, or empty when there is no student with this id. When
+     * {@code expectedVersions} is not null the student must be at one of them, otherwise a
+     * {@link PreconditionFailedException} is thrown; a write that loses the race with another one
+     * fails on commit with an {@code ObjectOptimisticLockingFailureException}.
+     */
+    @Transactional
+    public Optional<Student> update(Long id, Collection<Long> expectedVersions,
+        Map<String, ?> changes) {
+        changes.forEach(this::validate);
+        Optional<Student> found = studentRepository.findCurrentById(id);
+        found.ifPresent(student -> {
+            if (expectedVersions != null && !expectedVersions.contains(student.getVersion())) {
+                throw new PreconditionFailedException("Student " + id + " is at version "
+                    + student.getVersion() + ", not one of " + expectedVersions);
+            }
+            changes.forEach((field, value) -> {
+                if (NAME.equals(field)) {
+                    student.setName((String) value);
+                } else {
+                    student.setEmail((String) value);
+                }
+            });
+        });
+        return found;
+    }
+
+    private void validate(String field, Object value) {
+        if (!UPDATABLE.contains(field)) {
+            throw new InvalidRequestException("Field cannot be updated: " + field);
+        }
+        if (value != null && !(value instanceof String)) {
+            throw new InvalidRequestException("Field must be a string: " + field);
+        }
+        Set<ConstraintViolation<Student>> violations = validator
+            .validateValue(Student.class, field, value);
+        if (!violations.isEmpty()) {
+            throw new InvalidRequestException(field + " " + violations.stream()
+                .map(ConstraintViolation::getMessage).collect(Collectors.joining(",")));
+        }
+    }
+}
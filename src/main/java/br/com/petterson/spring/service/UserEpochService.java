@@ -0,0 +1,40 @@
+package br.com.petterson.spring.service;
+
+import br.com.petterson.spring.repository.EstudosRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Answers the current epoch of a user, which is bumped whenever the user's roles change. Values
+ * are kept for a short TTL so the check costs at most one single-column SELECT per user per TTL.
+ */
+@Component
+public class UserEpochService {
+
+    private static final long UNKNOWN_USER = -1L;
+
+    private final LoadingCache<String, Long> epochs;
+
+    @Autowired
+    public UserEpochService(EstudosRepository estudosRepository,
+        @Value("${security.jwt.epoch-check.ttl-seconds:30}") long ttlSeconds) {
+        this.epochs = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+            .build(username -> Optional.ofNullable(estudosRepository.findEpochByUsername(username))
+                .orElse(UNKNOWN_USER));
+    }
+
+    public boolean isCurrent(String username, long epoch) {
+        return epochs.get(username) == epoch;
+    }
+
+    public void invalidate(String username) {
+        epochs.invalidate(username);
+    }
+}
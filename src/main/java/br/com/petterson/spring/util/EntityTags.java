@@ -0,0 +1,82 @@
+package br.com.petterson.spring.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Strong entity tags built from an entity version, as in {@code "3"}, or from a digest of the
+ * versions that make up a collection.
+ */
+public final class EntityTags {
+
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+    private static final int DIGEST_BYTES = 16;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private EntityTags() {
+    }
+
+    public static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    public static String digest(CharSequence content) {
+        byte[] hash;
+        try {
+            hash = MessageDigest.getInstance("SHA-256")
+                .digest(content.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        StringBuilder tag = new StringBuilder(DIGEST_BYTES * 2 + 2).append('"');
+        for (int i = 0; i < DIGEST_BYTES; i++) {
+            tag.append(HEX[(hash[i] >> 4) & 0xf]).append(HEX[hash[i] & 0xf]);
+        }
+        return tag.append('"').toString();
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header matches the tag, using the weak comparison the
+     * header calls for.
+     */
+    public static boolean matches(String ifNoneMatch, String tag) {
+        String opaque = stripWeak(tag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (ANY.equals(candidate) || stripWeak(candidate).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the versions listed in an {@code If-Match} header, or {@code null} for {@code *}.
+     * Weak and foreign tags can never match, so they are left out.
+     */
+    public static List<Long> parseVersions(String ifMatch) {
+        List<Long> versions = new ArrayList<>();
+        for (String tag : ifMatch.split(",")) {
+            tag = tag.trim();
+            if (ANY.equals(tag)) {
+                return null;
+            }
+            if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                try {
+                    versions.add(Long.parseLong(tag.substring(1, tag.length() - 1)));
+                } catch (NumberFormatException e) {
+                    // not one of ours
+                }
+            }
+        }
+        return versions;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag;
+    }
+}
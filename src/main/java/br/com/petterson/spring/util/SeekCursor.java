@@ -0,0 +1,60 @@
+package br.com.petterson.spring.util;
+
+import br.com.petterson.spring.error.InvalidRequestException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for keyset pagination: the sort key plus the {@code (value, id)} of
+ * the last row returned, so the next page can seek past it instead of using an OFFSET.
+ */
+public class SeekCursor {
+
+    public static final String SORT_BY_ID = "id";
+    public static final String SORT_BY_NAME = "name";
+
+    private final String sort;
+    private final String value;
+    private final Long id;
+
+    public SeekCursor(String sort, String value, Long id) {
+        this.sort = sort;
+        this.value = value;
+        this.id = id;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = sort + ":" + id + ":" + (value != null ? value : "");
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SeekCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            if (parts.length != 3 || !isSupportedSort(parts[0])) {
+                throw new InvalidRequestException("Invalid cursor: " + token);
+            }
+            return new SeekCursor(parts[0], parts[2], Long.valueOf(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid cursor: " + token);
+        }
+    }
+
+    public static boolean isSupportedSort(String sort) {
+        return SORT_BY_ID.equals(sort) || SORT_BY_NAME.equals(sort);
+    }
+}
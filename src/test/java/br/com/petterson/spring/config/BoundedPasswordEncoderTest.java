@@ -0,0 +1,142 @@
+package br.com.petterson.spring.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+public class BoundedPasswordEncoderTest {
+
+    private static final long RETRY_AFTER_SECONDS = 7;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService callers = Executors.newFixedThreadPool(2);
+    private BoundedPasswordEncoder encoder;
+
+    @Before
+    public void setUp() {
+        encoder = encoder(4);
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+        encoder.destroy();
+    }
+
+    @Test
+    public void verificationBeyondThePoolAndQueueShouldBeRejected() throws Exception {
+        saturate();
+
+        Assertions.assertThatThrownBy(() -> encoder.matches("secret", "$2a$04$unused"))
+            .isInstanceOfSatisfying(LoginOverloadedException.class, e -> Assertions
+                .assertThat(e.getRetryAfterSeconds()).isEqualTo(RETRY_AFTER_SECONDS));
+        Assertions.assertThat(meterRegistry.get("login.verification.rejected").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    public void loginShouldAnswer503WithRetryAfterWhenThePoolIsSaturated() throws Exception {
+        String hash = new BCryptPasswordEncoder(4).encode("secret");
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setPasswordEncoder(encoder);
+        provider.setUserDetailsService(username -> new User(username, hash,
+            AuthorityUtils.createAuthorityList("ROLE_USER")));
+        JWTAuthenticationFilter filter =
+            new JWTAuthenticationFilter(new ProviderManager(Collections.singletonList(provider)),
+                false);
+        saturate();
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/login");
+        request.setServletPath("/login");
+        request.setContent("{\"username\":\"legolas\",\"password\":\"secret\"}"
+            .getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+
+        Assertions.assertThat(response.getStatus()).isEqualTo(503);
+        Assertions.assertThat(response.getHeader(HttpHeaders.RETRY_AFTER))
+            .isEqualTo(String.valueOf(RETRY_AFTER_SECONDS));
+    }
+
+    @Test
+    public void hashesShouldOnlyBeUpgradedToAHigherCost() {
+        String cost10 = new BCryptPasswordEncoder(10).encode("secret");
+        String cost12 = new BCryptPasswordEncoder(12).encode("secret");
+        BoundedPasswordEncoder strength12 = encoder(12);
+        try {
+            Assertions.assertThat(encoder(10).upgradeEncoding(cost12)).isFalse();
+            Assertions.assertThat(strength12.upgradeEncoding(cost10)).isTrue();
+            Assertions.assertThat(strength12.upgradeEncoding(cost12)).isFalse();
+        } finally {
+            strength12.destroy();
+        }
+    }
+
+    private BoundedPasswordEncoder encoder(int strength) {
+        return new BoundedPasswordEncoder(meterRegistry, 1, 1, 5000, RETRY_AFTER_SECONDS,
+            strength, 250, 4, 16);
+    }
+
+    /**
+     * Occupies the single pool thread and the single queue slot with hashes that wait for
+     * {@link #release}.
+     */
+    private void saturate() throws InterruptedException {
+        for (int i = 0; i < 2; i++) {
+            callers.submit(() -> encoder.encode(new BlockingPassword()));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("login.verification.queue").gauge().value() < 1
+            && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private class BlockingPassword implements CharSequence {
+
+        @Override
+        public int length() {
+            return toString().length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return toString().charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "secret";
+        }
+    }
+}
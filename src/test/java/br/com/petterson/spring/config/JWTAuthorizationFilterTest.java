@@ -0,0 +1,149 @@
+package br.com.petterson.spring.config;
+
+import static br.com.petterson.spring.config.SecurityConstants.EPOCH_CLAIM;
+import static br.com.petterson.spring.config.SecurityConstants.HEADER_STRING;
+import static br.com.petterson.spring.config.SecurityConstants.ROLES_CLAIM;
+import static br.com.petterson.spring.config.SecurityConstants.SIGNING_KEY;
+import static br.com.petterson.spring.config.SecurityConstants.TOKEN_PRIFIX;
+
+import br.com.petterson.spring.service.CustomUserDetailService;
+import br.com.petterson.spring.service.UserEpochService;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+public class JWTAuthorizationFilterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CustomUserDetailService customUserDetailService =
+        Mockito.mock(CustomUserDetailService.class);
+    private final VerifiedTokenCache verifiedTokenCache =
+        new VerifiedTokenCache(meterRegistry, 100, 60);
+
+    @After
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void forgedAndExpiredTokensShouldBeRejectedWithoutBeingCached() {
+        JWTAuthorizationFilter filter = filter(false, null);
+        String forged = Jwts.builder().setSubject("legolas")
+            .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+            .signWith(SignatureAlgorithm.HS512, "forged".getBytes(StandardCharsets.UTF_8))
+            .compact();
+        String expired = Jwts.builder().setSubject("legolas")
+            .setExpiration(new Date(System.currentTimeMillis() - 1_000))
+            .signWith(SignatureAlgorithm.HS512, SIGNING_KEY)
+            .compact();
+
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertThatThrownBy(() -> authenticate(filter, forged))
+                .isInstanceOf(SignatureException.class);
+            Assertions.assertThatThrownBy(() -> authenticate(filter, expired))
+                .isInstanceOf(ExpiredJwtException.class);
+        }
+        Assertions.assertThat(cacheSize()).isZero();
+        Mockito.verifyZeroInteractions(customUserDetailService);
+    }
+
+    @Test
+    public void tokenWithAStaleEpochShouldBeRejectedAndEvicted() throws Exception {
+        UserEpochService userEpochService = Mockito.mock(UserEpochService.class);
+        BDDMockito.when(userEpochService.isCurrent("legolas", 1L)).thenReturn(true, false);
+        BDDMockito.when(customUserDetailService.loadUserByUsername("legolas"))
+            .thenReturn(user("ROLE_USER"));
+        JWTAuthorizationFilter filter = filter(false, userEpochService);
+        String token = token(1L, null);
+
+        Assertions.assertThat(authenticate(filter, token)).isNotNull();
+        Assertions.assertThat(cacheSize()).isEqualTo(1);
+
+        Assertions.assertThat(authenticate(filter, token)).isNull();
+        Assertions.assertThat(cacheSize()).isZero();
+    }
+
+    @Test
+    public void rolesInTheTokenShouldBeTrustedWhenAuthoritiesAreInTheToken() throws Exception {
+        Authentication authentication = authenticate(filter(true, null),
+            token(null, Arrays.asList("ROLE_USER", "ROLE_ADMIN")));
+
+        Assertions.assertThat(AuthorityUtils.authorityListToSet(authentication.getAuthorities()))
+            .containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+        Mockito.verifyZeroInteractions(customUserDetailService);
+    }
+
+    @Test
+    public void rolesShouldBeLookedUpWhenTheTokenDoesNotCarryThem() throws Exception {
+        BDDMockito.when(customUserDetailService.loadUserByUsername("legolas"))
+            .thenReturn(user("ROLE_USER"));
+
+        Authentication ignoringClaim = authenticate(filter(false, null),
+            token(null, Arrays.asList("ROLE_USER", "ROLE_ADMIN")));
+        Authentication withoutClaim = authenticate(filter(true, null), token(null, null));
+
+        Assertions.assertThat(AuthorityUtils.authorityListToSet(ignoringClaim.getAuthorities()))
+            .containsExactly("ROLE_USER");
+        Assertions.assertThat(AuthorityUtils.authorityListToSet(withoutClaim.getAuthorities()))
+            .containsExactly("ROLE_USER");
+        Mockito.verify(customUserDetailService, Mockito.times(2)).loadUserByUsername("legolas");
+    }
+
+    private JWTAuthorizationFilter filter(boolean authoritiesInToken,
+        UserEpochService userEpochService) {
+        return new JWTAuthorizationFilter(Mockito.mock(AuthenticationManager.class),
+            customUserDetailService, verifiedTokenCache, authoritiesInToken, userEpochService,
+            meterRegistry);
+    }
+
+    private static String token(Long epoch, List<String> roles) {
+        JwtBuilder builder = Jwts.builder().setSubject("legolas")
+            .setExpiration(new Date(System.currentTimeMillis() + 60_000));
+        if (epoch != null) {
+            builder.claim(EPOCH_CLAIM, epoch);
+        }
+        if (roles != null) {
+            builder.claim(ROLES_CLAIM, roles);
+        }
+        return builder.signWith(SignatureAlgorithm.HS512, SIGNING_KEY).compact();
+    }
+
+    private static UserDetails user(String... roles) {
+        return new User("legolas", "", AuthorityUtils.createAuthorityList(roles));
+    }
+
+    private static Authentication authenticate(JWTAuthorizationFilter filter, String token)
+        throws Exception {
+        MockHttpServletRequest request =
+            new MockHttpServletRequest("GET", "/v1/protected/students");
+        request.addHeader(HEADER_STRING, TOKEN_PRIFIX + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private double cacheSize() {
+        return meterRegistry.get("cache.size").tag("cache", "verifiedTokens").gauge().value();
+    }
+}
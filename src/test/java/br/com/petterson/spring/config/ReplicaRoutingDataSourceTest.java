@@ -0,0 +1,89 @@
+package br.com.petterson.spring.config;
+
+import br.com.petterson.spring.model.Student;
+import br.com.petterson.spring.repository.StudentRepository;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Two embedded H2 databases stand in for the primary and a replica; a second replica points to a
+ * server that is not running.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "datasource.replicas.urls=" + ReplicaRoutingDataSourceTest.REPLICA_URL
+        + ",jdbc:h2:tcp://localhost:1/down"})
+public class ReplicaRoutingDataSourceTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+    @Autowired
+    private JdbcTemplate primary;
+
+    private final JdbcTemplate replica =
+        new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Before
+    public void setUp() {
+        if (replica.queryForList("show tables").isEmpty()) {
+            primary.queryForList("script nodata", String.class).stream()
+                .filter(statement -> !statement.startsWith("CREATE USER"))
+                .forEach(replica::execute);
+        }
+        primary.update("delete from student");
+        replica.update("delete from student");
+        replica.update("insert into student (id, name, email, version) "
+            + "values (1, 'Replica', 'replica@teste.com', 0)");
+        studentRepository.save(new Student("Primary", "primary@teste.com"));
+        replicaRoutingDataSource.checkReplicas();
+    }
+
+    @Test
+    public void readOnlyTransactionsShouldReadFromTheHealthyReplica() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        for (int i = 0; i < 4; i++) {
+            List<String> names = readOnly.execute(status -> names());
+            Assertions.assertThat(names).containsExactly("Replica");
+        }
+    }
+
+    @Test
+    public void readWriteTransactionsShouldReadFromThePrimary() {
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+
+        List<String> names = readWrite.execute(status -> names());
+        Assertions.assertThat(names).containsExactly("Primary");
+    }
+
+    private List<String> names() {
+        return StreamSupport.stream(studentRepository.findAll().spliterator(), false)
+            .map(Student::getName)
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,59 @@
+package br.com.petterson.spring.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class ServerTimingFilterTest {
+
+    @Test
+    public void phasesRecordedDuringTheRequestShouldBeReturnedInTheHeader() throws Exception {
+        ServerTimingFilter filter = new ServerTimingFilter(0, 1024);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/v1/protected/students"), response,
+            new MockFilterChain(new HttpServlet() {
+                @Override
+                protected void service(HttpServletRequest request,
+                    HttpServletResponse servletResponse) throws IOException {
+                    RequestTimings.current().record(RequestTimings.Phase.DB, System.nanoTime());
+                    servletResponse.getOutputStream().write("[]".getBytes(StandardCharsets.UTF_8));
+                    servletResponse.flushBuffer();
+                }
+            }));
+
+        Assertions.assertThat(response.getHeader("Server-Timing"))
+            .matches("db;dur=[0-9.]+, total;dur=[0-9.]+");
+        Assertions.assertThat(response.getContentAsString()).isEqualTo("[]");
+        Assertions.assertThat(RequestTimings.current()).isNull();
+    }
+
+    @Test
+    public void bodyLargerThanTheBufferShouldBeStreamedWithTheTimingsKnownSoFar()
+        throws Exception {
+        ServerTimingFilter filter = new ServerTimingFilter(0, 16);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        byte[] body = new byte[64];
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/v1/protected/students/export"),
+            response, new MockFilterChain(new HttpServlet() {
+                @Override
+                protected void service(HttpServletRequest request,
+                    HttpServletResponse servletResponse) throws IOException {
+                    servletResponse.getOutputStream().write(body);
+                    servletResponse.getOutputStream().flush();
+                    Assertions.assertThat(servletResponse.isCommitted()).isTrue();
+                }
+            }));
+
+        Assertions.assertThat(response.getHeader("Server-Timing")).startsWith("total;dur=");
+        Assertions.assertThat(response.getContentAsByteArray()).hasSize(body.length);
+    }
+}
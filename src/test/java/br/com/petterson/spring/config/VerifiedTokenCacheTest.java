@@ -0,0 +1,106 @@
+package br.com.petterson.spring.config;
+
+import io.jsonwebtoken.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+public class VerifiedTokenCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final VerifiedTokenCache cache =
+        new VerifiedTokenCache(new SimpleMeterRegistry(), 100, 60, nanos::get);
+
+    @Test
+    public void entryShouldExpireWithTheToken() {
+        CountingVerifier verifier = new CountingVerifier("legolas", 10_000);
+
+        cache.get("token", verifier);
+        advanceSeconds(9);
+        cache.get("token", verifier);
+        Assertions.assertThat(verifier.calls.get()).isEqualTo(1);
+
+        advanceSeconds(2);
+        cache.get("token", verifier);
+        Assertions.assertThat(verifier.calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void entryShouldExpireAfterTheTtlWhenTheTokenLivesLonger() {
+        CountingVerifier verifier = new CountingVerifier("legolas", TimeUnit.HOURS.toMillis(1));
+
+        cache.get("token", verifier);
+        advanceSeconds(59);
+        cache.get("token", verifier);
+        Assertions.assertThat(verifier.calls.get()).isEqualTo(1);
+
+        advanceSeconds(2);
+        cache.get("token", verifier);
+        Assertions.assertThat(verifier.calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void invalidateUserShouldDropOnlyThatUsersTokens() {
+        CountingVerifier legolas = new CountingVerifier("legolas", 10_000);
+        CountingVerifier gimli = new CountingVerifier("gimli", 10_000);
+        cache.get("legolas-web", legolas);
+        cache.get("legolas-mobile", legolas);
+        cache.get("gimli", gimli);
+
+        cache.invalidateUser("legolas");
+        cache.get("legolas-web", legolas);
+        cache.get("legolas-mobile", legolas);
+        cache.get("gimli", gimli);
+
+        Assertions.assertThat(legolas.calls.get()).isEqualTo(4);
+        Assertions.assertThat(gimli.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void failedOrEmptyVerificationsShouldNotBeCached() {
+        AtomicInteger calls = new AtomicInteger();
+        Function<String, VerifiedToken> rejecting = token -> {
+            calls.incrementAndGet();
+            throw new SignatureException("bad signature");
+        };
+        Function<String, VerifiedToken> empty = token -> {
+            calls.incrementAndGet();
+            return null;
+        };
+
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertThatThrownBy(() -> cache.get("forged", rejecting))
+                .isInstanceOf(SignatureException.class);
+            Assertions.assertThat(cache.get("no-subject", empty)).isNull();
+        }
+        Assertions.assertThat(calls.get()).isEqualTo(4);
+    }
+
+    private void advanceSeconds(long seconds) {
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    private static class CountingVerifier implements Function<String, VerifiedToken> {
+
+        private final String username;
+        private final long validForMillis;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        CountingVerifier(String username, long validForMillis) {
+            this.username = username;
+            this.validForMillis = validForMillis;
+        }
+
+        @Override
+        public VerifiedToken apply(String token) {
+            calls.incrementAndGet();
+            return new VerifiedToken(username, AuthorityUtils.createAuthorityList("ROLE_USER"),
+                null, System.currentTimeMillis() + validForMillis);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package br.com.petterson.spring.endpoint;
+
+import br.com.petterson.spring.model.Student;
+import br.com.petterson.spring.repository.StudentRepository;
+import br.com.petterson.spring.service.StudentCountCache;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import javax.persistence.EntityManagerFactory;
+import org.assertj.core.api.Assertions;
+import org.hamcrest.Matchers;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+/**
+ * Runs the endpoint against an embedded H2 database instead of a mocked repository.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:endpoint;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"})
+@WithMockUser(username = "xx", password = "xx", roles = {"USER", "ADMIN"})
+public class StudentEndpointDatabaseTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private StudentCountCache studentCountCache;
+
+    private Student frodo;
+    private Student sam;
+
+    @Before
+    public void setUp() {
+        studentRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+        frodo = studentRepository.save(new Student("Frodo", "frodo@lotr.com"));
+        sam = studentRepository.save(new Student("Sam", "sam@lotr.com"));
+    }
+
+    @Test
+    public void putWithTheCurrentVersionShouldUpdateOnlyThatStudentsCacheEntry() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/v1/protected/students/{id}", sam.getId()))
+            .andExpect(MockMvcResultMatchers.status().isOk());
+        Assertions.assertThat(entityManagerFactory.getCache().contains(Student.class, sam.getId()))
+            .isTrue();
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/v1/admin/students")
+            .header(HttpHeaders.IF_MATCH, "\"0\"")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(json(frodo.getId(), "Frodo Bolseiro", "frodo@lotr.com")))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1\""));
+
+        Student updated = studentRepository.findById(frodo.getId()).get();
+        Assertions.assertThat(updated.getName()).isEqualTo("Frodo Bolseiro");
+        Assertions.assertThat(updated.getNameNormalized()).isEqualTo("frodo bolseiro");
+        Assertions.assertThat(updated.getVersion()).isEqualTo(1L);
+        Assertions.assertThat(entityManagerFactory.getCache().contains(Student.class, sam.getId()))
+            .isTrue();
+    }
+
+    @Test
+    public void patchWithAStaleVersionShouldReturnStatusCode412() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.patch("/v1/admin/students/{id}", frodo.getId())
+            .header(HttpHeaders.IF_MATCH, "\"7\"")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"name\":\"Gollum\"}"))
+            .andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+
+        Assertions.assertThat(studentRepository.findById(frodo.getId()).get().getName())
+            .isEqualTo("Frodo");
+    }
+
+    @Test
+    public void patchOfAMissingStudentShouldReturnStatusCode404() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.patch("/v1/admin/students/{id}", -1L)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"name\":\"Gollum\"}"))
+            .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    public void postWithAnExistingIdShouldReturnTheStoredStudentAndItsTag() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/v1/admin/students")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(json(sam.getId(), "Samwise", "sam@lotr.com")))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1\""))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(sam.getId()))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.name").value("Samwise"));
+    }
+
+    @Test
+    public void postWithAnUnknownIdShouldCreateTheStudent() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/v1/admin/students")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(json(-1L, "Merry", "merry@lotr.com")))
+            .andExpect(MockMvcResultMatchers.status().isCreated());
+
+        Assertions.assertThat(studentRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    public void deletingOneStudentShouldKeepTheOthersCached() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/v1/protected/students/{id}", sam.getId()))
+            .andExpect(MockMvcResultMatchers.status().isOk());
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/v1/admin/students/{id}", frodo.getId()))
+            .andExpect(MockMvcResultMatchers.status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.delete("/v1/admin/students/{id}", frodo.getId()))
+            .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+        Assertions.assertThat(studentRepository.existsById(frodo.getId())).isFalse();
+        Assertions.assertThat(entityManagerFactory.getCache().contains(Student.class, sam.getId()))
+            .isTrue();
+    }
+
+    @Test
+    public void bulkDeleteShouldReportTheRequestedAndDeletedCounts() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.delete("/v1/admin/students")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[" + frodo.getId() + "," + sam.getId() + "," + frodo.getId() + ",-1]"))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andExpect(MockMvcResultMatchers.jsonPath("$.requested").value(3))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.deleted").value(2));
+
+        Assertions.assertThat(studentRepository.count()).isZero();
+    }
+
+    @Test
+    public void conditionalGetByIdShouldAnswer304UntilTheStudentChanges() throws Exception {
+        String etag = etag(MockMvcRequestBuilders.get("/v1/protected/students/{id}",
+            frodo.getId()));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/v1/protected/students/{id}", frodo.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(MockMvcResultMatchers.status().isNotModified())
+            .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, etag));
+
+        rename(frodo, "Frodo Bolseiro");
+        mockMvc.perform(MockMvcRequestBuilders.get("/v1/protected/students/{id}", frodo.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1\""))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.name").value("Frodo Bolseiro"));
+    }
+
+    @Test
+    public void conditionalListingShouldAnswer304UntilARowOfThePageChanges() throws Exception {
+        String etag = etag(MockMvcRequestBuilders.get("/v1/protected/students"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/v1/protected/students")
+            .header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(MockMvcResultMatchers.status().isNotModified());
+
+        rename(sam, "Samwise");
+        mockMvc.perform(MockMvcRequestBuilders.get("/v1/protected/students")
+            .header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andExpect(MockMvcResultMatchers.jsonPath("$.content[1].name").value("Samwise"));
+    }
+
+    @Test
+    public void selectedFieldsShouldBeTaggedApart() throws Exception {
+        String whole = etag(MockMvcRequestBuilders.get("/v1/protected/students/{id}",
+            frodo.getId()));
+        String name = etag(MockMvcRequestBuilders.get("/v1/protected/students/{id}",
+            frodo.getId()).param("fields", "name"));
+        String nameAndEmail = etag(MockMvcRequestBuilders.get("/v1/protected/students/{id}",
+            frodo.getId()).param("fields", "name,email"));
+
+        Assertions.assertThat(name).isNotEqualTo(whole).isNotEqualTo(nameAndEmail);
+        mockMvc.perform(MockMvcRequestBuilders.get("/v1/protected/students/{id}", frodo.getId())
+            .param("fields", "name")
+            .header(HttpHeaders.IF_NONE_MATCH, whole))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andExpect(MockMvcResultMatchers.jsonPath("$.name").value("Frodo"))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.email").doesNotExist());
+        mockMvc.perform(MockMvcRequestBuilders.get("/v1/protected/students/{id}", frodo.getId())
+            .param("fields", "name")
+            .header(HttpHeaders.IF_NONE_MATCH, name))
+            .andExpect(MockMvcResultMatchers.status().isNotModified());
+    }
+
+    @Test
+    public void findByIdsShouldKeepRequestOrderAndReportMissingIdsOnce() throws Exception {
+        Student merry = studentRepository.save(new Student("Merry", "merry@lotr.com"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/v1/protected/students")
+            .param("ids", merry.getId() + "," + frodo.getId() + ",-1," + merry.getId() + ","
+                + sam.getId() + ",-1"))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andExpect(MockMvcResultMatchers.jsonPath("$.content[*].name")
+                .value(Matchers.contains("Merry", "Frodo", "Sam")))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.missing[*]")
+                .value(Matchers.contains(-1)));
+    }
+
+    @Test
+    public void findByIdsAboveTheLimitShouldReturnStatusCode400() throws Exception {
+        String ids = LongStream.rangeClosed(1, 101).mapToObj(String::valueOf)
+            .collect(Collectors.joining(","));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/v1/protected/students").param("ids", ids))
+            .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        // duplicates do not count against the limit
+        mockMvc.perform(MockMvcRequestBuilders.get("/v1/protected/students")
+            .param("ids", ids.substring(0, ids.lastIndexOf(',')) + ",1"))
+            .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+
+    @Test
+    public void staleCachedCountShouldNotEndTheListingEarly() throws Exception {
+        studentCountCache.refresh();
+        for (String name : Arrays.asList("Merry", "Pippin", "Bilbo")) {
+            studentRepository.save(new Student(name, name.toLowerCase() + "@lotr.com"));
+        }
+
+        page(0).andExpect(MockMvcResultMatchers.jsonPath("$.totalElements").value(3))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.last").value(false));
+        page(1).andExpect(MockMvcResultMatchers.jsonPath("$.totalElements").value(5))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.last").value(false));
+        page(2).andExpect(MockMvcResultMatchers.jsonPath("$.numberOfElements").value(1))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.totalElements").value(5))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.last").value(true));
+        Assertions.assertThat(studentCountCache.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void batchAboveTheLimitShouldReturnStatusCode400() throws Exception {
+        String operation = "{\"op\":\"create\",\"name\":\"Merry\","
+            + "\"email\":\"merry@lotr.com\"}";
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/v1/admin/students/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[" + String.join(",", Collections.nCopies(10_001, operation)) + "]"))
+            .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        Assertions.assertThat(studentRepository.count()).isEqualTo(2);
+    }
+
+    private ResultActions page(int page) throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.get("/v1/protected/students")
+            .param("count", "cached")
+            .param("size", "2")
+            .param("page", String.valueOf(page)))
+            .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+
+    private String etag(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request)
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private void rename(Student student, String name) throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.patch("/v1/admin/students/{id}", student.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"name\":\"" + name + "\"}"))
+            .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+
+    private static String json(Long id, String name, String email) {
+        return "{\"id\":" + id + ",\"name\":\"" + name + "\",\"email\":\"" + email + "\"}";
+    }
+}
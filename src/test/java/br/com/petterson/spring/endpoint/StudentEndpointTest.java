@@ -165,7 +165,7 @@ public class StudentEndpointTest {
     public void updateWhenNameIsExistsShouldReturnStatusCode200() throws Exception {
         ObjectMapper mapper = new ObjectMapper();
         Student student = new Student(3L, "Sam", "teste1@hotmail.com");
-        BDDMockito.when(studentRepository.save(student)).thenReturn(student);
+        BDDMockito.when(studentRepository.findCurrentById(3L)).thenReturn(Optional.of(student));
 
         mockMvc.perform(MockMvcRequestBuilders.put("/v1/admin/students/")
             .content(mapper.writeValueAsString(student))
@@ -178,7 +178,6 @@ public class StudentEndpointTest {
     public void updateWhenNameIsNullShouldReturnStatusCode404() throws Exception {
         ObjectMapper mapper = new ObjectMapper();
         Student student = new Student();
-        BDDMockito.when(studentRepository.save(student)).thenReturn(student);
 
         mockMvc.perform(MockMvcRequestBuilders.put("/v1/admin/students/")
             .content(mapper.writeValueAsString(student))
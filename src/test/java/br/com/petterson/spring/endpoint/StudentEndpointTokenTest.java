@@ -181,7 +181,7 @@ public class StudentEndpointTokenTest {
         String token = adminHeader.getHeaders().get("Authorization").get(0);
         ObjectMapper mapper = new ObjectMapper();
         Student student = new Student(3L, "Sam", "teste1@hotmail.com");
-        BDDMockito.when(studentRepository.save(student)).thenReturn(student);
+        BDDMockito.when(studentRepository.findCurrentById(3L)).thenReturn(Optional.of(student));
 
         mockMvc.perform(
             MockMvcRequestBuilders.put("/v1/admin/students/").header("Authorization", token)
@@ -195,7 +195,6 @@ public class StudentEndpointTokenTest {
         String token = adminHeader.getHeaders().get("Authorization").get(0);
         ObjectMapper mapper = new ObjectMapper();
         Student student = new Student();
-        BDDMockito.when(studentRepository.save(student)).thenReturn(student);
 
         mockMvc.perform(
             MockMvcRequestBuilders.put("/v1/admin/students/").header("Authorization", token)
@@ -0,0 +1,75 @@
+package br.com.petterson.spring.javaclient;
+
+import br.com.petterson.spring.model.Student;
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.match.MockRestRequestMatchers;
+import org.springframework.test.web.client.response.MockRestResponseCreators;
+import org.springframework.web.client.RestTemplate;
+
+public class JavaClientDAOTest {
+
+    private static final String STUDENT_URI = "http://localhost:8080/v1/protected/students/1";
+
+    private MockRestServiceServer server;
+    private JavaClientDAO javaClientDAO;
+
+    @Before
+    public void setUp() {
+        RestTemplate restTemplate = new RestTemplateBuilder()
+            .rootUri("http://localhost:8080/v1/protected/students")
+            .build();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        javaClientDAO = new JavaClientDAO(restTemplate, new RestTemplate());
+    }
+
+    @Test
+    public void notModifiedShouldBeAnsweredFromTheCachedBody() {
+        expectStudent(null, "\"0\"", "Frodo");
+        server.expect(MockRestRequestMatchers.requestTo(STUDENT_URI))
+            .andExpect(MockRestRequestMatchers.method(HttpMethod.GET))
+            .andExpect(MockRestRequestMatchers.header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+            .andRespond(MockRestResponseCreators.withStatus(HttpStatus.NOT_MODIFIED));
+
+        Student first = javaClientDAO.findById(1);
+        Student revalidated = javaClientDAO.findById(1);
+
+        server.verify();
+        Assertions.assertThat(first.getName()).isEqualTo("Frodo");
+        Assertions.assertThat(revalidated).isSameAs(first);
+    }
+
+    @Test
+    public void changedStudentShouldReplaceTheCachedBody() {
+        expectStudent(null, "\"0\"", "Frodo");
+        expectStudent("\"0\"", "\"1\"", "Frodo Bolseiro");
+        expectStudent("\"1\"", "\"1\"", "Frodo Bolseiro");
+
+        javaClientDAO.findById(1);
+        Student changed = javaClientDAO.findById(1);
+        Student current = javaClientDAO.findById(1);
+
+        server.verify();
+        Assertions.assertThat(changed.getName()).isEqualTo("Frodo Bolseiro");
+        Assertions.assertThat(current.getName()).isEqualTo("Frodo Bolseiro");
+    }
+
+    private void expectStudent(String ifNoneMatch, String etag, String name) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        server.expect(MockRestRequestMatchers.requestTo(STUDENT_URI))
+            .andExpect(request -> Assertions
+                .assertThat(request.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH))
+                .isEqualTo(ifNoneMatch))
+            .andRespond(MockRestResponseCreators.withSuccess("{\"id\":1,\"name\":\"" + name
+                + "\",\"email\":\"frodo@lotr.com\"}", MediaType.APPLICATION_JSON)
+                .headers(headers));
+    }
+}
@@ -0,0 +1,46 @@
+package br.com.petterson.spring.model;
+
+import br.com.petterson.spring.repository.StudentRepository;
+import javax.sql.DataSource;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.transaction.BeforeTransaction;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:pooled-ids;MODE=MySQL",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQL8Dialect"})
+public class PooledIdGeneratorTest {
+
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeTransaction
+    public void existingIdsUpTo999() {
+        // committed outside the test transaction, as the generator reads it on its own connection
+        new JdbcTemplate(dataSource).update("update hibernate_sequence set next_val = 1000");
+    }
+
+    @Test
+    public void idsShouldContinueFromTheSharedHibernateSequenceTable() {
+        Student student = studentRepository.save(new Student("Legolas", "legolas@lotr.com"));
+
+        Assertions.assertThat(student.getId()).isGreaterThanOrEqualTo(1000L);
+        Assertions.assertThat(new JdbcTemplate(dataSource).queryForObject(
+            "select count(*) from information_schema.tables where upper(table_name) = 'POOLED'",
+            Integer.class)).isZero();
+    }
+}
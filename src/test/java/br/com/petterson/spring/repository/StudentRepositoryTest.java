@@ -1,8 +1,11 @@
 package br.com.petterson.spring.repository;
 
 import br.com.petterson.spring.model.Student;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
 import org.assertj.core.api.Assertions;
 import org.junit.Rule;
 import org.junit.Test;
@@ -10,6 +13,9 @@ import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.junit4.SpringRunner;
 
 @RunWith(SpringRunner.class)
@@ -61,4 +67,44 @@ public class StudentRepositoryTest {
         Assertions.assertThat(studentList.size()).isEqualTo(2);
     }
 
+    @Test
+    public void findNextByNameShouldSeekPastTheLastNameAndId() {
+        Student ana = this.studentRepository.save(new Student("Ana", "ana@teste.com.br"));
+        Student bia = this.studentRepository.save(new Student("Bia", "bia@teste.com.br"));
+        Student bia2 = this.studentRepository.save(new Student("Bia", "bia2@teste.com.br"));
+        Student caio = this.studentRepository.save(new Student("Caio", "caio@teste.com.br"));
+        List<Student> firstPage = studentRepository
+            .findAllByOrderByNameAscIdAsc(PageRequest.of(0, 2));
+        List<Student> nextPage = studentRepository
+            .findNextByName(bia.getName(), bia.getId(), PageRequest.of(0, 2));
+        Assertions.assertThat(firstPage).containsExactly(ana, bia);
+        Assertions.assertThat(nextPage).containsExactly(bia2, caio);
+    }
+
+    @Test
+    public void findByNameNormalizedStartingWithShouldIgnoreCaseAndAccents() {
+        this.studentRepository.save(new Student("João", "joao@teste.com.br"));
+        this.studentRepository.save(new Student("JOANA", "joana@teste.com.br"));
+        this.studentRepository.save(new Student("Ana", "ana@teste.com.br"));
+        Slice<Student> students = studentRepository
+            .findByNameNormalizedStartingWith("jo", PageRequest.of(0, 10));
+        Assertions.assertThat(students.getContent()).extracting(Student::getName)
+            .containsExactlyInAnyOrder("João", "JOANA");
+    }
+
+    @Test
+    public void findAttributesByShouldSelectOnlyTheGivenAttributes() {
+        Student ana = this.studentRepository.save(new Student("Ana", "ana@teste.com.br"));
+        Student bia = this.studentRepository.save(new Student("Bia", "bia@teste.com.br"));
+        this.studentRepository.save(new Student("Caio", "caio@teste.com.br"));
+
+        List<Tuple> rows = this.studentRepository.findAttributesBy(Arrays.asList("id", "name"),
+            PageRequest.of(0, 2, Sort.by("name")));
+
+        Assertions.assertThat(rows).hasSize(3);
+        Assertions.assertThat(rows.get(0).getElements()).extracting(TupleElement::getAlias)
+            .containsExactly("id", "name");
+        Assertions.assertThat(rows.get(0).get("id")).isEqualTo(ana.getId());
+        Assertions.assertThat(rows.get(1).get("name")).isEqualTo(bia.getName());
+    }
 }
@@ -0,0 +1,95 @@
+package br.com.petterson.spring.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Test;
+
+public class ReadCoalescerTest {
+
+    private static final int CALLERS = 8;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger queries = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentReadsOfTheSameKeyShouldShareOneQuery() throws Exception {
+        ReadCoalescer coalescer = new ReadCoalescer(meterRegistry, true, 5000);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> coalescer.read("findById", 1L, this::blockingQuery)));
+        }
+        awaitCount("joined", CALLERS - 1);
+        release.countDown();
+        for (Future<String> result : results) {
+            Assertions.assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("student");
+        }
+        Assertions.assertThat(queries.get()).isEqualTo(1);
+        Assertions.assertThat(count("leader")).isEqualTo(1);
+
+        coalescer.read("findById", 1L, queries::incrementAndGet);
+        Assertions.assertThat(queries.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void callerShouldRunItsOwnQueryAfterWaitingTooLong() throws Exception {
+        ReadCoalescer coalescer = new ReadCoalescer(meterRegistry, true, 50);
+
+        Future<String> leader =
+            executor.submit(() -> coalescer.read("findById", 1L, this::blockingQuery));
+        awaitCount("leader", 1);
+        String fallback = coalescer.read("findById", 1L, () -> {
+            queries.incrementAndGet();
+            return "fallback";
+        });
+
+        Assertions.assertThat(fallback).isEqualTo("fallback");
+        Assertions.assertThat(count("timeout")).isEqualTo(1);
+        Assertions.assertThat(queries.get()).isEqualTo(2);
+        release.countDown();
+        Assertions.assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("student");
+    }
+
+    private String blockingQuery() {
+        queries.incrementAndGet();
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "student";
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("students.reads.coalescing").tag("outcome", outcome).counter()
+            .count();
+    }
+
+    private void awaitCount(String outcome, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.find("students.reads.coalescing").tag("outcome", outcome)
+            .counters().stream().mapToDouble(Counter::count).sum() < expected
+            && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
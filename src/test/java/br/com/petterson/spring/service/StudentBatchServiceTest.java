@@ -0,0 +1,118 @@
+package br.com.petterson.spring.service;
+
+import br.com.petterson.spring.model.Student;
+import br.com.petterson.spring.model.StudentBatchOperation;
+import br.com.petterson.spring.model.StudentBatchOperation.Type;
+import br.com.petterson.spring.model.StudentBatchResult;
+import br.com.petterson.spring.repository.StudentRepository;
+import java.util.Arrays;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.validation.Validation;
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+public class StudentBatchServiceTest {
+
+    private final StudentRepository studentRepository = Mockito.mock(StudentRepository.class);
+    private final StudentCountCache studentCountCache = Mockito.mock(StudentCountCache.class);
+    private final PlatformTransactionManager transactionManager =
+        Mockito.mock(PlatformTransactionManager.class);
+    private final EntityManager entityManager = Mockito.mock(EntityManager.class);
+
+    @Before
+    public void setUp() {
+        BDDMockito.when(transactionManager.getTransaction(ArgumentMatchers.any()))
+            .thenReturn(new SimpleTransactionStatus());
+    }
+
+    @Test
+    public void everyOperationShouldGetItsOwnResultInRequestOrder() {
+        Student frodo = new Student(1L, "Frodo", "frodo@lotr.com");
+        Student sam = new Student(2L, "Sam", "sam@lotr.com");
+        BDDMockito.when(studentRepository.findAllById(ArgumentMatchers.anyIterable()))
+            .thenReturn(Arrays.asList(frodo, sam));
+
+        List<StudentBatchResult> results = service(10).apply(Arrays.asList(
+            new StudentBatchOperation(Type.CREATE, null, "Merry", "merry@lotr.com"),
+            new StudentBatchOperation(Type.CREATE, null, "Pippin", "not-an-email"),
+            new StudentBatchOperation(Type.UPDATE, 1L, "Frodo Bolseiro", "frodo@lotr.com"),
+            new StudentBatchOperation(Type.DELETE, 2L, null, null),
+            new StudentBatchOperation(Type.DELETE, 9L, null, null),
+            new StudentBatchOperation(Type.UPDATE, null, "Bilbo", "bilbo@lotr.com"),
+            new StudentBatchOperation(null, 1L, null, null)));
+
+        Assertions.assertThat(results).extracting(StudentBatchResult::getIndex)
+            .containsExactly(0, 1, 2, 3, 4, 5, 6);
+        Assertions.assertThat(results).extracting(StudentBatchResult::getStatus)
+            .containsExactly(201, 400, 200, 200, 404, 400, 400);
+        Assertions.assertThat(results.get(1).getError()).isNotNull();
+        Assertions.assertThat(frodo.getName()).isEqualTo("Frodo Bolseiro");
+        Mockito.verify(entityManager).persist(ArgumentMatchers.any(Student.class));
+        Mockito.verify(entityManager).remove(sam);
+        Mockito.verify(studentCountCache).added(1);
+        Mockito.verify(studentCountCache).removed(1);
+    }
+
+    @Test
+    public void rolledBackChunkShouldReportEveryOperationAsConflict() {
+        BDDMockito.willThrow(new PersistenceException("value too long")).willNothing()
+            .given(entityManager).flush();
+
+        List<StudentBatchResult> results = service(2).apply(Arrays.asList(
+            create("Merry"), create("Pippin"), create("Bilbo")));
+
+        Assertions.assertThat(results).extracting(StudentBatchResult::getStatus)
+            .containsExactly(409, 409, 201);
+        Assertions.assertThat(results.get(0).getError().getDetail()).isEqualTo("value too long");
+        Mockito.verify(transactionManager).rollback(ArgumentMatchers.any());
+        Mockito.verify(transactionManager).commit(ArgumentMatchers.any());
+        Mockito.verify(studentCountCache).added(1);
+        Mockito.verify(studentCountCache, Mockito.never()).added(2);
+    }
+
+    @Test
+    public void countCacheShouldOnlyChangeOnceTheChunkCommitted() {
+        service(10).apply(Arrays.asList(create("Merry")));
+
+        InOrder inOrder = Mockito.inOrder(entityManager, transactionManager, studentCountCache);
+        inOrder.verify(entityManager).flush();
+        inOrder.verify(transactionManager).commit(ArgumentMatchers.any());
+        inOrder.verify(studentCountCache).added(1);
+    }
+
+    @Test
+    public void failedCommitShouldLeaveTheCountCacheAlone() {
+        BDDMockito.willThrow(new TransactionSystemException("commit failed"))
+            .given(transactionManager).commit(ArgumentMatchers.any());
+
+        List<StudentBatchResult> results = service(10).apply(Arrays.asList(create("Merry")));
+
+        Assertions.assertThat(results).extracting(StudentBatchResult::getStatus)
+            .containsExactly(409);
+        Mockito.verifyZeroInteractions(studentCountCache);
+    }
+
+    private StudentBatchService service(int chunkSize) {
+        StudentBatchService service = new StudentBatchService(studentRepository,
+            studentCountCache, Validation.buildDefaultValidatorFactory().getValidator(),
+            transactionManager, chunkSize);
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+        return service;
+    }
+
+    private static StudentBatchOperation create(String name) {
+        return new StudentBatchOperation(Type.CREATE, null, name,
+            name.toLowerCase() + "@lotr.com");
+    }
+}
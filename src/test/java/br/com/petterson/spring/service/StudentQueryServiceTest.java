@@ -0,0 +1,62 @@
+package br.com.petterson.spring.service;
+
+import br.com.petterson.spring.model.Student;
+import br.com.petterson.spring.repository.StudentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+
+public class StudentQueryServiceTest {
+
+    private final StudentRepository studentRepository = Mockito.mock(StudentRepository.class);
+    private StudentNameIndex studentNameIndex;
+    private StudentQueryService studentQueryService;
+
+    @Before
+    public void setUp() {
+        BDDMockito.when(studentRepository.streamAllNames()).thenReturn(Stream.empty());
+        studentNameIndex = new StudentNameIndex(studentRepository,
+            Mockito.mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), true);
+        studentNameIndex.build();
+        studentQueryService = new StudentQueryService(studentRepository, studentNameIndex);
+    }
+
+    @Test
+    public void termsShorterThanATrigramShouldBeSearchedInTheDatabase() {
+        for (long id = 1; id <= 10; id++) {
+            studentNameIndex.index(id, "Ana " + id);
+        }
+        BDDMockito.when(studentRepository.findByNameIgnoreCaseContaining("an"))
+            .thenReturn(Collections.singletonList(new Student(1L, "Ana 1", "ana@lotr.com")));
+
+        Assertions.assertThat(studentQueryService.findByName("an")).hasSize(1);
+        Mockito.verify(studentRepository, Mockito.never())
+            .findAllById(ArgumentMatchers.anyIterable());
+    }
+
+    @Test
+    public void indexedMatchesShouldBeLoadedAThousandIdsAtATime() {
+        for (long id = 1; id <= 2500; id++) {
+            studentNameIndex.index(id, "Aragorn " + id);
+        }
+        BDDMockito.when(studentRepository.findAllById(ArgumentMatchers.anyIterable()))
+            .thenReturn(Collections.emptyList());
+
+        studentQueryService.findByName("aragorn");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Long>> ids = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(studentRepository, Mockito.times(3)).findAllById(ids.capture());
+        Assertions.assertThat(ids.getAllValues()).extracting(List::size)
+            .containsExactly(1000, 1000, 500);
+    }
+}